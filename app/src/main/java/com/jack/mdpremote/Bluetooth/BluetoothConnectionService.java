@@ -9,6 +9,9 @@ import android.content.Context;
 import android.content.Intent;
 import android.support.v4.content.LocalBroadcastManager;
 
+import com.jack.mdpremote.Journal.SessionRecorder;
+import com.jack.mdpremote.Metrics.HotPathMetrics;
+
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -23,11 +26,13 @@ public class BluetoothConnectionService {
 
     private static final UUID mUUID = UUID.fromString("00001101-0000-1000-8000-00805F9B34FB");
 
+    private static final long RECONNECT_DELAY_MS = 3000;
+
     private final BluetoothAdapter mBluetoothAdapter;
 
     private AcceptThread AcceptThread;
 
-    private ReconnectThread ReconnectThread;
+    private Reconnector Reconnector;
 
     private ConnectThread ConnectThread;
 
@@ -37,10 +42,6 @@ public class BluetoothConnectionService {
 
     private BluetoothDevice mDevice;
 
-    private UUID deviceUUID;
-
-    private boolean reconnecting = false;
-
     public static boolean BluetoothConnectionStatus = false;
 
     private ProgressDialog progressDialog;
@@ -88,7 +89,7 @@ public class BluetoothConnectionService {
 
 
             if (socket != null) {
-                connected(socket, socket.getRemoteDevice());
+                connected(new RfcommTransport(socket), socket.getRemoteDevice());
             }
 
         }
@@ -103,67 +104,28 @@ public class BluetoothConnectionService {
         }
     }
 
-    public void connectionLost(BluetoothDevice device) {
-
-        reconnecting = true;
-
-        if (ReconnectThread == null && mBluetoothAdapter.isEnabled()) {
-
-            ReconnectThread = new ReconnectThread(device);
+    public synchronized void connectionLost(final BluetoothDevice device) {
 
-            ReconnectThread.start();
+        if (device == null)
+            return;
 
+        if (!mBluetoothAdapter.isEnabled()) {
 
-        } else if (!mBluetoothAdapter.isEnabled()) {
+            if (Reconnector != null) {
 
-            if (ReconnectThread != null) {
-
-                ReconnectThread.cancel();
+                Reconnector.cancel();
 
             }
 
-            ReconnectThread = null;
-        }
-
-    }
+            Reconnector = null;
 
-    private class ReconnectThread extends Thread {
-
-        private boolean flag = true;
-
-        ReconnectThread(BluetoothDevice device) {
-            mDevice = device;
+            return;
         }
 
-        public void run() {
-
-            while (mBluetoothAdapter.isEnabled() && flag) {
-
-                if (reconnecting) {
-
-                    connect(mDevice);
-                }
-
-                reconnecting = false;
-
-                try {
-
-                    sleep(3000);
-
-                } catch (InterruptedException e) {
-
-                    e.printStackTrace();
+        if (Reconnector != null)
+            return;
 
-                }
-            }
-        }
-
-        void cancel() {
-            this.flag = false;
-        }
-    }
-
-    private synchronized void connect(BluetoothDevice device) {
+        mDevice = device;
 
         if (ConnectThread != null) {
 
@@ -189,73 +151,55 @@ public class BluetoothConnectionService {
 
         }
 
-        ConnectThread = new ConnectThread(device, mUUID);
+        Reconnector = new Reconnector(new RfcommConnector(mBluetoothAdapter, device, mUUID), RECONNECT_DELAY_MS, new Reconnector.Listener() {
+            @Override
+            public void onConnected(Transport transport) {
+                connected(transport, device);
+            }
+        });
 
-        ConnectThread.start();
+        Reconnector.start();
     }
 
 
     private class ConnectThread extends Thread {
 
-        private BluetoothSocket mSocket;
+        private final BluetoothDevice device;
+
+        private final RfcommConnector connector;
 
         private ConnectThread(BluetoothDevice device, UUID u) {
 
             mDevice = device;
 
-            deviceUUID = u;
+            this.device = device;
 
-            BluetoothSocket tmp = null;
-
-            try {
-
-                tmp = device.createRfcommSocketToServiceRecord(deviceUUID);
-
-            } catch (IOException e) {
-
-            }
-
-            mSocket = tmp;
+            connector = new RfcommConnector(mBluetoothAdapter, device, u);
         }
 
         public void run() {
 
-            mBluetoothAdapter.cancelDiscovery();
+            Transport transport;
 
             try {
 
-                mSocket.connect();
+                transport = connector.connect();
 
             } catch (IOException e) {
 
-                try {
-
-                    mSocket.close();
-
-                } catch (IOException e1) {
-
-                }
-
-                connectionLost(mDevice);
+                connectionLost(device);
 
                 return;
             }
 
-            connected(mSocket, mDevice);
+            connected(transport, device);
 
 
         }
 
 
         private void cancel() {
-
-            try {
-
-                mSocket.close();
-
-            } catch (IOException e) {
-
-            }
+            connector.cancel();
         }
     }
 
@@ -291,13 +235,19 @@ public class BluetoothConnectionService {
 
     private class ConnectedThread extends Thread {
 
-        private final BluetoothSocket socket;
+        private final Transport transport;
 
         private final InputStream inputStream;
 
         private final OutputStream outputStream;
 
-        private ConnectedThread(BluetoothSocket socket) {
+        private final FrameAssembler frameAssembler;
+
+        private final CommandWriter commandWriter;
+
+        private final SessionRecorder sessionRecorder;
+
+        private ConnectedThread(Transport transport) {
 
             connectionStatus = new Intent("ConnectionStatus");
 
@@ -305,11 +255,13 @@ public class BluetoothConnectionService {
 
             connectionStatus.putExtra("Device", mDevice);
 
+            connectionStatus.putExtra("DeviceName", transport.getName());
+
             LocalBroadcastManager.getInstance(context).sendBroadcast(connectionStatus);
 
             BluetoothConnectionStatus = true;
 
-            this.socket = socket;
+            this.transport = transport;
 
             InputStream tmpIn = null;
 
@@ -317,9 +269,9 @@ public class BluetoothConnectionService {
 
             try {
 
-                tmpIn = this.socket.getInputStream();
+                tmpIn = this.transport.getInputStream();
 
-                tmpOut = this.socket.getOutputStream();
+                tmpOut = this.transport.getOutputStream();
 
             } catch (IOException e) {
 
@@ -330,6 +282,30 @@ public class BluetoothConnectionService {
             inputStream = tmpIn;
 
             outputStream = tmpOut;
+
+            commandWriter = new CommandWriter(outputStream);
+
+            sessionRecorder = SessionRecorder.getInstance(context);
+
+            frameAssembler = new FrameAssembler(new FrameAssembler.Listener() {
+                @Override
+                public void onFrame(String frame) {
+
+                    if (sessionRecorder.isRecording()) {
+
+                        byte[] bytes = frame.getBytes(Charset.defaultCharset());
+
+                        sessionRecorder.record(SessionRecorder.INBOUND, bytes, 0, bytes.length);
+                    }
+
+                    Intent incomingMessageIntent = new Intent("incomingMessage");
+
+                    incomingMessageIntent.putExtra("receivedMessage", frame);
+
+                    LocalBroadcastManager.getInstance(context).sendBroadcast(incomingMessageIntent);
+
+                }
+            });
         }
 
         public void run() {
@@ -348,18 +324,23 @@ public class BluetoothConnectionService {
 
             }
 
+            commandWriter.start();
+
             while (true) {
 
                 try {
 
                     bytes = inputStream.read(buffer);
-                    String inMsg = new String(buffer, 0, bytes);
 
-                    Intent incomingMessageIntent = new Intent("incomingMessage");
+                    if (bytes < 0)
+                        throw new IOException("Input stream closed");
 
-                    incomingMessageIntent.putExtra("receivedMessage", inMsg);
+                    HotPathMetrics.add(HotPathMetrics.BYTES_IN, bytes);
 
-                    LocalBroadcastManager.getInstance(context).sendBroadcast(incomingMessageIntent);
+                    frameAssembler.append(buffer, 0, bytes);
+
+                    if (inputStream.available() == 0)
+                        frameAssembler.flushIfIdle();
 
                 } catch (IOException e) {
 
@@ -369,32 +350,38 @@ public class BluetoothConnectionService {
 
                     connectionStatus.putExtra("Device", mDevice);
 
+                    connectionStatus.putExtra("DeviceName", transport.getName());
+
+                    connectionStatus.putExtra("Rfcomm", transport instanceof RfcommTransport);
+
                     LocalBroadcastManager.getInstance(context).sendBroadcast(connectionStatus);
 
                     BluetoothConnectionStatus = false;
 
+                    commandWriter.quit();
+
                     break;
                 }
             }
         }
 
-        private void write(byte[] bytes) {
+        void cancel() {
+
+            commandWriter.quit();
 
             try {
 
-                outputStream.write(bytes);
+                commandWriter.join(CommandWriter.DRAIN_TIMEOUT_MS);
 
-            } catch (IOException e) {
+            } catch (InterruptedException e) {
 
-            }
+                Thread.currentThread().interrupt();
 
-        }
-
-        void cancel() {
+            }
 
             try {
 
-                socket.close();
+                transport.close();
 
             } catch (IOException e) {
 
@@ -404,7 +391,20 @@ public class BluetoothConnectionService {
     }
 
 
-    private void connected(BluetoothSocket mSocket, BluetoothDevice device) {
+    public synchronized void startTransport(Transport transport) {
+
+        if (ConnectThread != null) {
+
+            ConnectThread.cancel();
+
+            ConnectThread = null;
+        }
+
+        this.connected(transport, null);
+    }
+
+
+    private synchronized void connected(Transport transport, BluetoothDevice device) {
 
         mDevice = device;
 
@@ -424,25 +424,41 @@ public class BluetoothConnectionService {
 
         }
 
-        if (ReconnectThread != null) {
+        if (Reconnector != null) {
 
-            ReconnectThread = null;
+            Reconnector.cancel();
+
+            Reconnector = null;
 
         }
 
-        ConnectedThread = new ConnectedThread(mSocket);
+        ConnectedThread = new ConnectedThread(transport);
 
         ConnectedThread.start();
     }
 
 
-    public static void write(byte[] out) {
+    public static boolean write(byte[] out) {
 
-        if (!(ConnectedThread == null)) {
+        ConnectedThread connectedThread = ConnectedThread;
 
-            ConnectedThread.write(out);
+        if (connectedThread == null)
+            return false;
 
-        }
+        connectedThread.sessionRecorder.record(SessionRecorder.OUTBOUND, out, 0, out.length);
+
+        return connectedThread.commandWriter.offer(out);
+    }
+
+
+    public static CommandWriter getCommandWriter() {
+
+        ConnectedThread connectedThread = ConnectedThread;
+
+        if (connectedThread == null)
+            return null;
+
+        return connectedThread.commandWriter;
     }
 
 }
\ No newline at end of file
@@ -22,6 +22,7 @@ import android.widget.Switch;
 import android.widget.TextView;
 import android.widget.Toast;
 
+import com.jack.mdpremote.Journal.SessionState;
 import com.jack.mdpremote.R;
 
 import java.util.ArrayList;
@@ -294,7 +295,7 @@ public class BluetoothSettings extends AppCompatActivity {
         @Override
         public void onReceive(Context context, Intent intent) {
 
-            BluetoothDevice mDevice = intent.getParcelableExtra("Device");
+            String deviceName = intent.getStringExtra("DeviceName");
 
             String status = intent.getStringExtra("Status");
 
@@ -314,18 +315,23 @@ public class BluetoothSettings extends AppCompatActivity {
 
                 }
 
-                Toast.makeText(BluetoothSettings.this, "Device now connected to " + mDevice.getName(), Toast.LENGTH_LONG).show();
+                Toast.makeText(BluetoothSettings.this, "Device now connected to " + deviceName, Toast.LENGTH_LONG).show();
 
-                editor.putString("connStatus", mDevice.getName());
+                editor.putString("connStatus", deviceName);
 
-                connStatusTextView.setText(mDevice.getName());
+                SessionState.getInstance().setConnectionStatus(deviceName);
+
+                connStatusTextView.setText(deviceName);
             } else if (status.equals("disconnected")) {
 
-                Toast.makeText(BluetoothSettings.this, "Disconnected from " + mDevice.getName(), Toast.LENGTH_LONG).show();
+                Toast.makeText(BluetoothSettings.this, "Disconnected from " + deviceName, Toast.LENGTH_LONG).show();
 
-                BTConnection = new BluetoothConnectionService(BluetoothSettings.this);
+                if (intent.getBooleanExtra("Rfcomm", false)) {
 
-                BTConnection.connectionLost(mBTDevice);
+                    BTConnection = new BluetoothConnectionService(BluetoothSettings.this);
+
+                    BTConnection.connectionLost(mBTDevice);
+                }
 
                 sharedPreferences = getApplicationContext().getSharedPreferences("Shared Preferences", Context.MODE_PRIVATE);
 
@@ -333,6 +339,8 @@ public class BluetoothSettings extends AppCompatActivity {
 
                 editor.putString("connStatus", "None");
 
+                SessionState.getInstance().setConnectionStatus("None");
+
                 TextView connStatusTextView = findViewById(R.id.connStatusTextView);
 
                 connStatusTextView.setText("None");
@@ -0,0 +1,271 @@
+package com.jack.mdpremote.Bluetooth;
+
+import com.jack.mdpremote.Metrics.HotPathMetrics;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+
+
+public class CommandWriter extends Thread {
+
+    public static final int CAPACITY = 64;
+
+    public static final long DRAIN_TIMEOUT_MS = 250;
+
+    private static final byte[][] COALESCED_PREFIXES = new byte[][]{"B3:".getBytes(Charset.defaultCharset())};
+
+    private final OutputStream outputStream;
+
+    private final byte[][] queue = new byte[CAPACITY][];
+
+    private int head = 0;
+
+    private int size = 0;
+
+    private boolean running = true;
+
+    private int maxQueueDepth = 0;
+
+    private long writeCount = 0;
+
+    private long totalWriteNanos = 0;
+
+    private long lastWriteNanos = 0;
+
+    private long maxWriteNanos = 0;
+
+    private int droppedCount = 0;
+
+    private int coalescedCount = 0;
+
+    private int discardedCount = 0;
+
+
+    CommandWriter(OutputStream outputStream) {
+
+        super("CommandWriter");
+
+        this.outputStream = outputStream;
+    }
+
+
+    public synchronized boolean offer(byte[] command) {
+
+        if (command.length == 0)
+            return false;
+
+        if (!running) {
+
+            this.discard(1);
+
+            return false;
+        }
+
+        byte[] prefix = this.coalescedPrefix(command);
+
+        if (prefix != null && size > 0) {
+
+            int tail = (head + size - 1) % CAPACITY;
+
+            if (startsWith(queue[tail], prefix)) {
+
+                queue[tail] = command;
+
+                coalescedCount++;
+
+                return true;
+            }
+        }
+
+        if (size == CAPACITY) {
+
+            droppedCount++;
+
+            return false;
+        }
+
+        queue[(head + size) % CAPACITY] = command;
+
+        size++;
+
+        if (size > maxQueueDepth)
+            maxQueueDepth = size;
+
+        this.notify();
+
+        return true;
+    }
+
+
+    public synchronized void quit() {
+
+        running = false;
+
+        this.notify();
+    }
+
+
+    @Override
+    public void run() {
+
+        while (true) {
+
+            byte[] command;
+
+            synchronized (this) {
+
+                while (running && size == 0) {
+
+                    try {
+
+                        this.wait();
+
+                    } catch (InterruptedException e) {
+
+                        running = false;
+                    }
+                }
+
+                if (size == 0)
+                    return;
+
+                command = this.take();
+            }
+
+            long start = System.nanoTime();
+
+            try {
+
+                outputStream.write(command);
+
+                outputStream.flush();
+
+            } catch (IOException e) {
+
+                synchronized (this) {
+
+                    running = false;
+
+                    this.discard(size + 1);
+
+                    while (size > 0)
+                        this.take();
+                }
+
+                return;
+            }
+
+            HotPathMetrics.add(HotPathMetrics.BYTES_OUT, command.length);
+
+            this.recordWrite(System.nanoTime() - start);
+        }
+    }
+
+
+    public synchronized int getQueueDepth() {
+        return size;
+    }
+
+
+    public synchronized int getMaxQueueDepth() {
+        return maxQueueDepth;
+    }
+
+
+    public synchronized long getWriteCount() {
+        return writeCount;
+    }
+
+
+    public synchronized long getLastWriteMicros() {
+        return lastWriteNanos / 1000;
+    }
+
+
+    public synchronized long getMaxWriteMicros() {
+        return maxWriteNanos / 1000;
+    }
+
+
+    public synchronized long getAverageWriteMicros() {
+
+        if (writeCount == 0)
+            return 0;
+
+        return totalWriteNanos / writeCount / 1000;
+    }
+
+
+    public synchronized int getDroppedCount() {
+        return droppedCount;
+    }
+
+
+    public synchronized int getCoalescedCount() {
+        return coalescedCount;
+    }
+
+
+    public synchronized int getDiscardedCount() {
+        return discardedCount;
+    }
+
+
+    private void discard(int commands) {
+
+        discardedCount += commands;
+
+        HotPathMetrics.add(HotPathMetrics.COMMANDS_DISCARDED, commands);
+    }
+
+
+    private synchronized void recordWrite(long nanos) {
+
+        writeCount++;
+
+        totalWriteNanos += nanos;
+
+        lastWriteNanos = nanos;
+
+        if (nanos > maxWriteNanos)
+            maxWriteNanos = nanos;
+    }
+
+
+    private byte[] take() {
+
+        byte[] command = queue[head];
+
+        queue[head] = null;
+
+        head = (head + 1) % CAPACITY;
+
+        size--;
+
+        return command;
+    }
+
+
+    private byte[] coalescedPrefix(byte[] command) {
+
+        for (byte[] prefix : COALESCED_PREFIXES)
+            if (startsWith(command, prefix))
+                return prefix;
+
+        return null;
+    }
+
+
+    private static boolean startsWith(byte[] command, byte[] prefix) {
+
+        if (command.length < prefix.length)
+            return false;
+
+        for (int i = 0; i < prefix.length; i++)
+            if (command[i] != prefix[i])
+                return false;
+
+        return true;
+    }
+}
@@ -0,0 +1,88 @@
+package com.jack.mdpremote.Bluetooth;
+
+import android.bluetooth.BluetoothAdapter;
+import android.bluetooth.BluetoothDevice;
+import android.bluetooth.BluetoothSocket;
+
+import java.io.IOException;
+import java.util.UUID;
+
+
+public class RfcommConnector implements TransportConnector {
+
+    private final BluetoothAdapter adapter;
+
+    private final BluetoothDevice device;
+
+    private final UUID uuid;
+
+    private volatile BluetoothSocket pendingSocket;
+
+
+    public RfcommConnector(BluetoothAdapter adapter, BluetoothDevice device, UUID uuid) {
+
+        this.adapter = adapter;
+
+        this.device = device;
+
+        this.uuid = uuid;
+    }
+
+
+    @Override
+    public boolean isAvailable() {
+        return adapter.isEnabled();
+    }
+
+
+    @Override
+    public Transport connect() throws IOException {
+
+        adapter.cancelDiscovery();
+
+        BluetoothSocket socket = device.createRfcommSocketToServiceRecord(uuid);
+
+        pendingSocket = socket;
+
+        try {
+
+            socket.connect();
+
+        } catch (IOException e) {
+
+            try {
+
+                socket.close();
+
+            } catch (IOException e1) {
+
+            }
+
+            throw e;
+
+        } finally {
+
+            pendingSocket = null;
+        }
+
+        return new RfcommTransport(socket);
+    }
+
+
+    @Override
+    public void cancel() {
+
+        BluetoothSocket socket = pendingSocket;
+
+        if (socket == null)
+            return;
+
+        try {
+
+            socket.close();
+
+        } catch (IOException e) {
+
+        }
+    }
+}
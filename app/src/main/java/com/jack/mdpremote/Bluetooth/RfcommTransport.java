@@ -0,0 +1,42 @@
+package com.jack.mdpremote.Bluetooth;
+
+import android.bluetooth.BluetoothSocket;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+
+public class RfcommTransport implements Transport {
+
+    private final BluetoothSocket socket;
+
+
+    public RfcommTransport(BluetoothSocket socket) {
+        this.socket = socket;
+    }
+
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        return socket.getInputStream();
+    }
+
+
+    @Override
+    public OutputStream getOutputStream() throws IOException {
+        return socket.getOutputStream();
+    }
+
+
+    @Override
+    public String getName() {
+        return socket.getRemoteDevice().getName();
+    }
+
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+}
@@ -4,13 +4,14 @@ import android.app.Activity;
 import android.content.Context;
 import android.content.SharedPreferences;
 import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
-import android.graphics.RectF;
+import android.graphics.Rect;
+import android.os.Trace;
 import android.support.annotation.Nullable;
 import android.util.AttributeSet;
+import android.view.Choreographer;
 import android.view.MotionEvent;
 import android.view.View;
 import android.widget.Button;
@@ -18,32 +19,44 @@ import android.widget.Switch;
 import android.widget.TextView;
 import android.widget.ToggleButton;
 
+import com.jack.mdpremote.Bluetooth.BluetoothConnectionService;
+import com.jack.mdpremote.Bluetooth.CommandWriter;
+import com.jack.mdpremote.Journal.MessageJournal;
 import com.jack.mdpremote.MainActivity;
+import com.jack.mdpremote.Metrics.HotPathMetrics;
+import com.jack.mdpremote.Metrics.MetricsWindow;
+import com.jack.mdpremote.Protocol.MapUpdate;
+import com.jack.mdpremote.Protocol.MapUpdateCoalescer;
 import com.jack.mdpremote.R;
 
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
-import java.math.BigInteger;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Locale;
+
 
 
 public class GridMap extends View {
 
-    private static final int COLUMN = 15, ROW = 20;
+    private static final int COLUMN = GridModel.COLUMN, ROW = GridModel.ROW;
+
+    private static final long METRICS_REFRESH_MS = 1000;
+
+    private static final int METRICS_LINE_COUNT = 7;
 
     private static float cellsSize;
 
-    private static JSONObject receivedPayload = new JSONObject();
+    private static MapUpdate receivedPayload;
 
     private static JSONObject mapInfo;
 
-    private static JSONObject manualMapInfo;
+    private static MapUpdate manualMapInfo;
 
     private static Cell[][] cells;
 
+    private static GridModel gridModel = new GridModel();
+
     private static String robotFacing = "None";
 
     private static int[] startCoordinates = new int[]{-1, -1};
@@ -54,9 +67,18 @@ public class GridMap extends View {
 
     private static int[] wpCoordinates = new int[]{-1, -1};
 
-    private static ArrayList<String[]> imageCoordinates = new ArrayList<>();
+    private static ImageIndex imageIndex = new ImageIndex();
+
+    private static MapUpdateCoalescer mapUpdateCoalescer = new MapUpdateCoalescer();
+
 
-    private static ArrayList<int[]> obstacleCoordinates = new ArrayList<>();
+    private static byte[] decodedCellStates = new byte[MapDescriptor.CELL_COUNT];
+
+    private static char[] exportBuffer = new char[Math.max(MapDescriptor.EXPORT_HEX_LENGTH, MapDescriptor.OBSTACLE_HEX_CAPACITY)];
+
+    private static PathPlanner pathPlanner = new PathPlanner();
+
+    private static int[] fastestPathCells = new int[0];
 
     private static boolean autoUpdate = false;
 
@@ -76,7 +98,7 @@ public class GridMap extends View {
 
     private static boolean validPosition = false;
 
-    private Bitmap image = BitmapFactory.decodeResource(getResources(), R.drawable.arrow_error);
+    private ImageTileCache imageTiles;
 
     private Paint blackColor = new Paint();
 
@@ -100,8 +122,68 @@ public class GridMap extends View {
 
     private Paint fastestPathColor = new Paint();
 
+    private Paint[] cellTypeColors = new Paint[]{unexploredColor, exploredColor, obstacleColor, robotColor, endColor, startColor, wpColor, imageColor};
+
+    private Bitmap baseLayer;
+
+    private Canvas baseCanvas = new Canvas();
+
+    private Rect dirtyRegion = new Rect();
+
+    private boolean metricsOverlay = false;
+
+    private MetricsWindow metricsWindow = new MetricsWindow();
+
+    private StringBuilder[] metricsLines = new StringBuilder[METRICS_LINE_COUNT];
+
+    private Paint metricsTextColor = new Paint();
+
+    private Paint metricsBackgroundColor = new Paint();
+
+    private Rect metricsBounds = new Rect();
+
+    private Runnable metricsRefresh = new Runnable() {
+        @Override
+        public void run() {
+
+            if (!metricsOverlay)
+                return;
+
+            metricsWindow.roll(System.nanoTime());
+
+            updateMetricsLines();
+
+            invalidate(metricsBounds);
+
+            postDelayed(this, METRICS_REFRESH_MS);
+        }
+    };
+
+    private boolean frameScheduled = false;
+
+    private int lastCoalescedCount = 0;
+
+    private FrameListener frameListener;
+
+    private Runnable afterFrame;
+
+    private Choreographer.FrameCallback frameCallback = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+
+            frameScheduled = false;
+
+            renderFrame();
+        }
+    };
+
     SharedPreferences sharedPreferences;
 
+
+    public interface FrameListener {
+        void onFrameApplied(int coalescedUpdates);
+    }
+
     SharedPreferences.Editor editor;
 
 
@@ -144,7 +226,15 @@ public class GridMap extends View {
 
 
     private void init(@Nullable AttributeSet attrs) {
+
         setWillNotDraw(false);
+
+        for (int i = 0; i < METRICS_LINE_COUNT; i++)
+            metricsLines[i] = new StringBuilder(64);
+
+        metricsTextColor.setColor(Color.WHITE);
+
+        metricsBackgroundColor.setColor(Color.argb(180, 0, 0, 0));
     }
 
     private int convertRow(int row) {
@@ -157,7 +247,9 @@ public class GridMap extends View {
 
         super.onDraw(canvas);
 
-        ArrayList<String[]> imageCoordinates = this.getImageCoordinates();
+        long drawStart = System.nanoTime();
+
+        Trace.beginSection("render");
 
         int[] currentCoordinates = this.getCurrentCoordinates();
 
@@ -165,16 +257,6 @@ public class GridMap extends View {
 
             canvas.drawColor(Color.parseColor("#000000"));
 
-            String[] placeholderImageCoord = new String[3];
-
-            placeholderImageCoord[0] = "999";
-
-            placeholderImageCoord[1] = "999";
-
-            placeholderImageCoord[2] = "placeholder";
-
-            imageCoordinates.add(placeholderImageCoord);
-
             this.createCell();
 
             this.setEndCoordinates(14, 19);
@@ -182,34 +264,213 @@ public class GridMap extends View {
             mapRendered = true;
         }
 
+        this.updateBaseLayer();
 
-        this.renderCell(canvas);
+        if (baseLayer != null)
+            canvas.drawBitmap(baseLayer, 0, 0, null);
 
-        this.renderAxisLabels(canvas);
+        this.renderFastestPath(canvas);
 
         if (this.getCanDrawRobot())
 
             this.renderRobot(canvas, currentCoordinates);
 
-        this.renderImages(canvas, imageCoordinates);
+        this.renderImages(canvas);
+
+        if (metricsOverlay)
+            this.renderMetricsOverlay(canvas);
+
+        Trace.endSection();
+
+        HotPathMetrics.recordNanos(HotPathMetrics.DRAW, System.nanoTime() - drawStart);
+    }
+
+
+    public void setMetricsOverlay(boolean enabled) {
+
+        metricsOverlay = enabled;
+
+        this.removeCallbacks(metricsRefresh);
+
+        if (enabled) {
+
+            metricsWindow.roll(System.nanoTime());
+
+            this.updateMetricsLines();
+
+            this.postDelayed(metricsRefresh, METRICS_REFRESH_MS);
+        }
+
+        this.invalidate();
+    }
+
+
+    public boolean getMetricsOverlay() {
+        return metricsOverlay;
+    }
+
+
+    private void updateMetricsLines() {
+
+        CommandWriter commandWriter = BluetoothConnectionService.getCommandWriter();
+
+        metricsLines[0].setLength(0);
+        metricsLines[0].append("in ").append(metricsWindow.getRate(HotPathMetrics.BYTES_IN)).append(" B/s  out ").append(metricsWindow.getRate(HotPathMetrics.BYTES_OUT)).append(" B/s");
+
+        metricsLines[1].setLength(0);
+        metricsLines[1].append("frames ").append(metricsWindow.getRate(HotPathMetrics.FRAMES_DECODED)).append("/s  dropped ").append(metricsWindow.getRate(HotPathMetrics.FRAMES_DROPPED)).append("/s  reconnects ").append(HotPathMetrics.get(HotPathMetrics.RECONNECTS));
+
+        this.appendTimerLine(metricsLines[2], "decode", HotPathMetrics.DECODE);
+
+        this.appendTimerLine(metricsLines[3], "apply", HotPathMetrics.APPLY);
+
+        this.appendTimerLine(metricsLines[4], "draw", HotPathMetrics.DRAW);
+
+        metricsLines[5].setLength(0);
+        metricsLines[5].append("queues decode ").append(HotPathMetrics.get(HotPathMetrics.DECODE_QUEUE_DEPTH)).append("  apply ").append(HotPathMetrics.get(HotPathMetrics.APPLY_QUEUE_DEPTH)).append("  write ").append(commandWriter == null ? 0 : commandWriter.getQueueDepth()).append("  discarded ").append(HotPathMetrics.get(HotPathMetrics.COMMANDS_DISCARDED));
+
+        metricsLines[6].setLength(0);
+        metricsLines[6].append("updates ").append(metricsWindow.getRate(HotPathMetrics.MAP_UPDATES)).append("/s  applies ").append(metricsWindow.getRate(HotPathMetrics.MAP_APPLIES)).append("/s  last frame ").append(lastCoalescedCount);
+    }
+
+
+    private void appendTimerLine(StringBuilder line, String name, int timer) {
+
+        line.setLength(0);
+
+        line.append(name).append(" p50 ").append(metricsWindow.getPercentileMicros(timer, 50)).append("us  p99 ").append(metricsWindow.getPercentileMicros(timer, 99)).append("us  n ").append(metricsWindow.getWindowCount(timer));
+    }
+
+
+    private void renderMetricsOverlay(Canvas canvas) {
+
+        metricsTextColor.setTextSize(cellsSize / 2);
+
+        float lineHeight = metricsTextColor.getTextSize() * 1.25f;
+
+        metricsBounds.set((int) cellsSize, 0, (int) (cellsSize * (COLUMN + 1)), (int) Math.ceil(lineHeight * (METRICS_LINE_COUNT + 0.5f)));
+
+        canvas.drawRect(metricsBounds, metricsBackgroundColor);
+
+        for (int i = 0; i < METRICS_LINE_COUNT; i++)
+            canvas.drawText(metricsLines[i], 0, metricsLines[i].length(), metricsBounds.left + lineHeight / 2, lineHeight * (i + 1), metricsTextColor);
+    }
+
+    @Override
+    protected void onSizeChanged(int width, int height, int oldWidth, int oldHeight) {
+
+        super.onSizeChanged(width, height, oldWidth, oldHeight);
+
+        if (cells != null)
+            this.layoutCells();
+    }
+
 
+    @Override
+    protected void onDetachedFromWindow() {
+
+        super.onDetachedFromWindow();
+
+        this.removeCallbacks(metricsRefresh);
+
+        Choreographer.getInstance().removeFrameCallback(frameCallback);
+
+        frameScheduled = false;
+
+        if (baseLayer != null) {
+
+            baseLayer.recycle();
+
+            baseLayer = null;
+        }
     }
 
+
     private void createCell() {
 
         cells = new Cell[COLUMN + 1][ROW + 1];
 
+        gridModel.fill(CellType.UNEXPLORED);
+
+        this.layoutCells();
+    }
+
+
+    private void layoutCells() {
+
         this.calculateDimension();
 
         cellsSize = this.getCellSize();
 
         for (int x = 0; x <= COLUMN; x++)
             for (int y = 0; y <= ROW; y++)
-                cells[x][y] = new Cell(x * cellsSize + (cellsSize / 30), y * cellsSize + (cellsSize / 30), (x + 1) * cellsSize, (y + 1) * cellsSize, unexploredColor, "unexplored");
+                cells[x][y] = new Cell(x * cellsSize + (cellsSize / 30), y * cellsSize + (cellsSize / 30), (x + 1) * cellsSize, (y + 1) * cellsSize);
+    }
+
+
+    public PathPlanner.Path planFastestPath() {
+
+        this.clearFastestPath();
+
+        int[] origin = robotRenderable ? currentCoordinates : startCoordinates;
+
+        int heading = PathPlanner.heading(robotFacing);
+
+        if (heading < 0)
+            heading = PathPlanner.RIGHT;
+
+        PathPlanner.Path path = pathPlanner.plan(gridModel, origin[0], this.convertRow(origin[1]), heading, wpCoordinates[0], this.convertRow(wpCoordinates[1]), 14, this.convertRow(19));
+
+        if (path == null)
+            return null;
+
+        fastestPathCells = new int[path.length()];
+
+        for (int i = 0; i < path.length(); i++)
+            fastestPathCells[i] = path.getCell(i);
+
+        this.invalidate();
+
+        return path;
+    }
+
+
+    public int getExploredCount() {
+        return gridModel.exploredCount();
+    }
+
+
+    public int getObstacleCount() {
+        return gridModel.occupiedCount();
+    }
+
+
+    public void clearFastestPath() {
+
+        if (fastestPathCells.length == 0)
+            return;
+
+        fastestPathCells = new int[0];
+
+        this.invalidate();
+    }
+
+
+    public void setRobotFootprintSize(int footprintSize) {
+
+        if (robotRenderable)
+            this.setOldRobotCoordinates(currentCoordinates[0], currentCoordinates[1]);
+
+        gridModel.setFootprintSize(footprintSize);
+
+        if (robotRenderable)
+            this.setCurCoordinates(currentCoordinates[0], currentCoordinates[1], robotFacing);
+
+        this.scheduleFrame();
     }
 
 
-    public void setAutoUpdate(boolean autoUpdate) throws JSONException {
+    public void setAutoUpdate(boolean autoUpdate) {
 
         if (!autoUpdate)
 
@@ -298,7 +559,7 @@ public class GridMap extends View {
 
         for (int x = column - 1; x <= column + 1; x++)
             for (int y = row - 1; y <= row + 1; y++)
-                cells[x][y].setType("end");
+                gridModel.setType(x, y, CellType.END);
 
     }
 
@@ -333,9 +594,11 @@ public class GridMap extends View {
 
         row = this.convertRow(row);
 
-        for (int x = column - 1; x <= column + 1; x++)
-            for (int y = row - 1; y <= row + 1; y++)
-                cells[x][y].setType("robot");
+        int radius = gridModel.getFootprintRadius();
+
+        for (int x = column - radius; x <= column + radius; x++)
+            for (int y = row - radius; y <= row + radius; y++)
+                gridModel.setType(x, y, CellType.ROBOT);
 
     }
 
@@ -368,7 +631,9 @@ public class GridMap extends View {
 
         editor.commit();
 
-        this.invalidate();
+        this.markRobotDirty();
+
+        this.scheduleFrame();
 
     }
 
@@ -386,7 +651,7 @@ public class GridMap extends View {
 
         row = this.convertRow(row);
 
-        cells[column][row].setType("waypoint");
+        gridModel.setType(column, row, CellType.WAYPOINT);
 
         String wp_x = "" + (wpCoordinates[0] - 1);
 
@@ -413,18 +678,12 @@ public class GridMap extends View {
 
     private void setObstacleCoordinates(int column, int row) {
 
-        int[] obstacleCoordinates = new int[]{column, row};
-
-        GridMap.obstacleCoordinates.add(obstacleCoordinates);
-
         row = this.convertRow(row);
 
-        cells[column][row].setType("obstacle");
+        gridModel.setOccupied(column, row, true);
 
-    }
+        gridModel.setType(column, row, CellType.OBSTACLE);
 
-    private ArrayList<int[]> getObstacleCoordinates() {
-        return obstacleCoordinates;
     }
 
     public void moveRobot(String facing) {
@@ -433,8 +692,6 @@ public class GridMap extends View {
 
         int[] curCoordinates = this.getCurrentCoordinates();
 
-        ArrayList<int[]> obstacleCoordinates = this.getObstacleCoordinates();
-
         this.setOldRobotCoordinates(curCoordinates[0], curCoordinates[1]);
 
         int[] previousRobotCoordinates = this.getPrevRobotCoordinates();
@@ -451,10 +708,8 @@ public class GridMap extends View {
                 switch (facing) {
 
                     case "forward":
-                        if (curCoordinates[1] != 19) {
-                            curCoordinates[1] += 1;
-                            validPosition = true;
-                        }
+                        curCoordinates[1] += 1;
+                        validPosition = true;
                         break;
 
                     case "right":
@@ -462,10 +717,8 @@ public class GridMap extends View {
                         break;
 
                     case "back":
-                        if (curCoordinates[1] != 2) {
-                            curCoordinates[1] -= 1;
-                            validPosition = true;
-                        }
+                        curCoordinates[1] -= 1;
+                        validPosition = true;
                         break;
 
                     case "left":
@@ -482,10 +735,8 @@ public class GridMap extends View {
                 switch (facing) {
 
                     case "forward":
-                        if (curCoordinates[0] != 14) {
-                            curCoordinates[0] += 1;
-                            validPosition = true;
-                        }
+                        curCoordinates[0] += 1;
+                        validPosition = true;
                         break;
 
                     case "right":
@@ -493,10 +744,8 @@ public class GridMap extends View {
                         break;
 
                     case "back":
-                        if (curCoordinates[0] != 2) {
-                            curCoordinates[0] -= 1;
-                            validPosition = true;
-                        }
+                        curCoordinates[0] -= 1;
+                        validPosition = true;
                         break;
 
                     case "left":
@@ -513,10 +762,8 @@ public class GridMap extends View {
                 switch (facing) {
 
                     case "forward":
-                        if (curCoordinates[1] != 2) {
-                            curCoordinates[1] -= 1;
-                            validPosition = true;
-                        }
+                        curCoordinates[1] -= 1;
+                        validPosition = true;
                         break;
 
                     case "right":
@@ -524,10 +771,8 @@ public class GridMap extends View {
                         break;
 
                     case "back":
-                        if (curCoordinates[1] != 19) {
-                            curCoordinates[1] += 1;
-                            validPosition = true;
-                        }
+                        curCoordinates[1] += 1;
+                        validPosition = true;
                         break;
 
                     case "left":
@@ -542,10 +787,8 @@ public class GridMap extends View {
             case "left":
                 switch (facing) {
                     case "forward":
-                        if (curCoordinates[0] != 2) {
-                            curCoordinates[0] -= 1;
-                            validPosition = true;
-                        }
+                        curCoordinates[0] -= 1;
+                        validPosition = true;
                         break;
 
                     case "right":
@@ -553,10 +796,8 @@ public class GridMap extends View {
                         break;
 
                     case "back":
-                        if (curCoordinates[0] != 14) {
-                            curCoordinates[0] += 1;
-                            validPosition = true;
-                        }
+                        curCoordinates[0] += 1;
+                        validPosition = true;
                         break;
 
                     case "left":
@@ -574,22 +815,8 @@ public class GridMap extends View {
         }
 
         if (getValidPosition())
-            for (int x = curCoordinates[0] - 1; x <= curCoordinates[0] + 1; x++) {
-                for (int y = curCoordinates[1] - 1; y <= curCoordinates[1] + 1; y++) {
-                    for (int i = 0; i < obstacleCoordinates.size(); i++) {
-                        if (obstacleCoordinates.get(i)[0] != x || obstacleCoordinates.get(i)[1] != y)
-                            setValidPosition(true);
-                        else {
-                            setValidPosition(false);
-                            break;
-                        }
-                    }
-                    if (!getValidPosition())
-                        break;
-                }
-                if (!getValidPosition())
-                    break;
-            }
+            setValidPosition(gridModel.canStand(curCoordinates[0], this.convertRow(curCoordinates[1])));
+
         if (getValidPosition())
             this.setCurCoordinates(curCoordinates[0], curCoordinates[1], robotFacing);
 
@@ -601,7 +828,7 @@ public class GridMap extends View {
             this.setCurCoordinates(previousRobotCoordinates[0], previousRobotCoordinates[1], robotFacing);
         }
 
-        this.invalidate();
+        this.scheduleFrame();
 
     }
 
@@ -614,9 +841,11 @@ public class GridMap extends View {
 
         oldRow = this.convertRow(oldRow);
 
-        for (int x = oldCol - 1; x <= oldCol + 1; x++)
-            for (int y = oldRow - 1; y <= oldRow + 1; y++)
-                cells[x][y].setType("explored");
+        int radius = gridModel.getFootprintRadius();
+
+        for (int x = oldCol - radius; x <= oldCol + radius; x++)
+            for (int y = oldRow - radius; y <= oldRow + radius; y++)
+                gridModel.setType(x, y, CellType.EXPLORED);
 
     }
 
@@ -626,457 +855,380 @@ public class GridMap extends View {
     }
 
 
-    private void setImageCoordinate(int column, int row, String imageType) {
+    private void setImageCoordinate(int column, int row, int imageType) {
 
         column += 1;
 
         row += 1;
 
-        String[] imageCoordinates = new String[3];
-
-        imageCoordinates[0] = String.valueOf(column);
-
-        imageCoordinates[1] = String.valueOf(row);
+        if (!gridModel.is(column, this.convertRow(row), CellType.OBSTACLE))
+            return;
 
-        imageCoordinates[2] = imageType;
+        if (!imageIndex.put(GridModel.index(column, this.convertRow(row)), imageType, System.currentTimeMillis()))
+            return;
 
-        boolean update = true;
+        MessageJournal.getInstance(this.getContext()).append(MessageJournal.Channel.IMAGE, "(" + (column - 1) + ", " + (row - 1) + ", " + imageType + ")");
 
-        for (int i = 0; i < this.getImageCoordinates().size(); i++)
-            if (this.getImageCoordinates().get(i)[0].equals(imageCoordinates[0]) && this.getImageCoordinates().get(i)[1].equals(imageCoordinates[1]) && this.getImageCoordinates().get(i)[1].equals(imageCoordinates[1]))
-                update = false;
+        gridModel.setType(column, this.convertRow(row), CellType.IMAGE);
+    }
 
 
-        if (update) {
+    private void updateBaseLayer() {
 
-            if (cells[column][20 - row].type.equals("obstacle")) {
+        int width = this.getWidth();
 
-                try {
+        int height = this.getHeight();
 
-                    this.getImageCoordinates().add(imageCoordinates);
+        if (width <= 0 || height <= 0)
+            return;
 
-                    this.sharedPreferences();
+        if (baseLayer == null || baseLayer.getWidth() != width || baseLayer.getHeight() != height) {
 
-                    String message = "(" + (column - 1) + ", " + (row - 1) + ", " + Integer.parseInt(imageCoordinates[2], 16) + ")";
+            if (baseLayer != null)
+                baseLayer.recycle();
 
-                    editor.putString("image", sharedPreferences.getString("image", "") + "\n " + message);
+            baseLayer = Bitmap.createBitmap(width, height, Bitmap.Config.RGB_565);
 
-                    editor.commit();
+            baseCanvas.setBitmap(baseLayer);
 
-                    row = convertRow(row);
+            baseCanvas.drawColor(Color.BLACK);
 
-                    cells[column][row].setType("image");
+            for (int x = 1; x <= COLUMN; x++)
+                for (int y = 0; y < ROW; y++)
+                    this.renderCell(baseCanvas, x, y);
 
-                } catch (Exception e) {
+            this.renderAxisLabels(baseCanvas);
 
-                }
+            gridModel.clearDirty();
 
-            }
+            return;
         }
 
+        this.flushDirtyCells(null);
     }
 
 
-    private ArrayList<String[]> getImageCoordinates() {
-        return imageCoordinates;
-    }
-
-
-    private void renderCell(Canvas canvas) {
-
-        for (int x = 1; x <= COLUMN; x++)
-            for (int y = 0; y < ROW; y++)
-                for (int i = 0; i < this.getImageCoordinates().size(); i++)
-                    canvas.drawRect(cells[x][y].fromX, cells[x][y].fromY, cells[x][y].toX, cells[x][y].toY, cells[x][y].paint);
-
-    }
-
+    private void flushDirtyCells(Rect region) {
 
-    private void renderAxisLabels(Canvas canvas) {
+        for (int i = gridModel.nextDirty(0); i >= 0; i = gridModel.nextDirty(i + 1)) {
 
-        for (int x = 1; x <= COLUMN; x++) {
+            int x = GridModel.column(i);
 
-            if (x > 10)
-                canvas.drawText(Integer.toString(x - 1), cells[x][20].fromX + (cellsSize / 5), cells[x][20].fromY + (cellsSize / 3), whiteColor);
-            else
-                canvas.drawText(Integer.toString(x - 1), cells[x][20].fromX + (cellsSize / 3), cells[x][20].fromY + (cellsSize / 3), whiteColor);
-        }
+            int y = GridModel.row(i);
 
-        for (int y = 0; y < ROW; y++) {
+            if (baseLayer != null)
+                this.renderCell(baseCanvas, x, y);
 
-            if ((20 - (y + 1)) > 9)
-                canvas.drawText(Integer.toString(20 - (y + 1)), cells[0][y].fromX + (cellsSize / 2), cells[0][y].fromY + (cellsSize / 1.5f), whiteColor);
-            else
-                canvas.drawText(Integer.toString(20 - (y + 1)), cells[0][y].fromX + (cellsSize / 1.5f), cells[0][y].fromY + (cellsSize / 1.5f), whiteColor);
+            if (region != null)
+                region.union((int) (x * cellsSize), (int) (y * cellsSize), (int) Math.ceil((x + 1) * cellsSize), (int) Math.ceil((y + 1) * cellsSize));
         }
 
+        gridModel.clearDirty();
     }
 
 
-    private void renderRobot(Canvas canvas, int[] curCoord) {
-
-        int internalRowCoordinates = this.convertRow(curCoord[1]);
-
-        for (int y = internalRowCoordinates; y <= internalRowCoordinates + 1; y++)
-            canvas.drawLine(cells[curCoord[0] - 1][y].fromX, cells[curCoord[0] - 1][y].fromY - (cellsSize / 30), cells[curCoord[0] + 1][y].toX, cells[curCoord[0] + 1][y].fromY - (cellsSize / 30), robotColor);
-
-        for (int x = curCoord[0] - 1; x < curCoord[0] + 1; x++)
-            canvas.drawLine(cells[x][internalRowCoordinates - 1].fromX - (cellsSize / 30) + cellsSize, cells[x][internalRowCoordinates - 1].fromY, cells[x][internalRowCoordinates + 1].fromX - (cellsSize / 30) + cellsSize, cells[x][internalRowCoordinates + 1].toY, robotColor);
-
-
-        switch (this.getRobotFacing()) {
+    private void renderCell(Canvas canvas, int x, int y) {
+        canvas.drawRect(cells[x][y].fromX, cells[x][y].fromY, cells[x][y].toX, cells[x][y].toY, cellTypeColors[gridModel.getType(x, y).ordinal()]);
+    }
 
-            case "up":
-                canvas.drawLine(cells[curCoord[0] - 1][internalRowCoordinates + 1].fromX, cells[curCoord[0] - 1][internalRowCoordinates + 1].toY, (cells[curCoord[0]][internalRowCoordinates - 1].fromX + cells[curCoord[0]][internalRowCoordinates - 1].toX) / 2, cells[curCoord[0]][internalRowCoordinates - 1].fromY, blackColor);
-                canvas.drawLine((cells[curCoord[0]][internalRowCoordinates - 1].fromX + cells[curCoord[0]][internalRowCoordinates - 1].toX) / 2, cells[curCoord[0]][internalRowCoordinates - 1].fromY, cells[curCoord[0] + 1][internalRowCoordinates + 1].toX, cells[curCoord[0] + 1][internalRowCoordinates + 1].toY, blackColor);
-                break;
 
-            case "down":
-                canvas.drawLine(cells[curCoord[0] - 1][internalRowCoordinates - 1].fromX, cells[curCoord[0] - 1][internalRowCoordinates - 1].fromY, (cells[curCoord[0]][internalRowCoordinates + 1].fromX + cells[curCoord[0]][internalRowCoordinates + 1].toX) / 2, cells[curCoord[0]][internalRowCoordinates + 1].toY, blackColor);
-                canvas.drawLine((cells[curCoord[0]][internalRowCoordinates + 1].fromX + cells[curCoord[0]][internalRowCoordinates + 1].toX) / 2, cells[curCoord[0]][internalRowCoordinates + 1].toY, cells[curCoord[0] + 1][internalRowCoordinates - 1].toX, cells[curCoord[0] + 1][internalRowCoordinates - 1].fromY, blackColor);
-                break;
+    private void markRobotDirty() {
 
-            case "right":
-                canvas.drawLine(cells[curCoord[0] - 1][internalRowCoordinates - 1].fromX, cells[curCoord[0] - 1][internalRowCoordinates - 1].fromY, cells[curCoord[0] + 1][internalRowCoordinates].toX, cells[curCoord[0] + 1][internalRowCoordinates - 1].toY + (cells[curCoord[0] + 1][internalRowCoordinates].toY - cells[curCoord[0] + 1][internalRowCoordinates - 1].toY) / 2, blackColor);
-                canvas.drawLine(cells[curCoord[0] + 1][internalRowCoordinates].toX, cells[curCoord[0] + 1][internalRowCoordinates - 1].toY + (cells[curCoord[0] + 1][internalRowCoordinates].toY - cells[curCoord[0] + 1][internalRowCoordinates - 1].toY) / 2, cells[curCoord[0] - 1][internalRowCoordinates + 1].fromX, cells[curCoord[0] - 1][internalRowCoordinates + 1].toY, blackColor);
-                break;
+        int row = this.convertRow(currentCoordinates[1]);
 
-            case "left":
-                canvas.drawLine(cells[curCoord[0] + 1][internalRowCoordinates - 1].toX, cells[curCoord[0] + 1][internalRowCoordinates - 1].fromY, cells[curCoord[0] - 1][internalRowCoordinates].fromX, cells[curCoord[0] - 1][internalRowCoordinates - 1].toY + (cells[curCoord[0] - 1][internalRowCoordinates].toY - cells[curCoord[0] - 1][internalRowCoordinates - 1].toY) / 2, blackColor);
-                canvas.drawLine(cells[curCoord[0] - 1][internalRowCoordinates].fromX, cells[curCoord[0] - 1][internalRowCoordinates - 1].toY + (cells[curCoord[0] - 1][internalRowCoordinates].toY - cells[curCoord[0] - 1][internalRowCoordinates - 1].toY) / 2, cells[curCoord[0] + 1][internalRowCoordinates + 1].toX, cells[curCoord[0] + 1][internalRowCoordinates + 1].toY, blackColor);
-                break;
+        int radius = gridModel.getFootprintRadius();
 
-            default:
-                break;
-        }
+        for (int x = currentCoordinates[0] - radius; x <= currentCoordinates[0] + radius; x++)
+            for (int y = row - radius; y <= row + radius; y++)
+                gridModel.markDirty(x, y);
 
     }
 
 
-    private void renderImages(Canvas canvas, ArrayList<String[]> imageCoordinates) {
-
-        RectF rect;
-
-        for (int i = 0; i < imageCoordinates.size(); i++) {
-
-            if (!imageCoordinates.get(i)[2].equals("placeholder")) {
-
-                int column = Integer.parseInt(imageCoordinates.get(i)[0]);
+    private void scheduleFrame() {
 
-                int row = convertRow(Integer.parseInt(imageCoordinates.get(i)[1]));
-
-                rect = new RectF(column * cellsSize, row * cellsSize, (column + 1) * cellsSize, (row + 1) * cellsSize);
+        if (frameScheduled)
+            return;
 
-                switch (imageCoordinates.get(i)[2]) {
+        frameScheduled = true;
 
-                    case "1":
-                        image = BitmapFactory.decodeResource(getResources(), R.drawable.up);
-                        break;
+        Choreographer.getInstance().postFrameCallback(frameCallback);
+    }
 
-                    case "2":
-                        image = BitmapFactory.decodeResource(getResources(), R.drawable.down);
-                        break;
 
-                    case "3":
-                        image = BitmapFactory.decodeResource(getResources(), R.drawable.right);
-                        break;
+    private void renderFrame() {
 
-                    case "4":
-                        image = BitmapFactory.decodeResource(getResources(), R.drawable.left);
-                        break;
+        int coalescedUpdates = mapUpdateCoalescer.getPendingCount();
 
-                    case "5":
-                        image = BitmapFactory.decodeResource(getResources(), R.drawable.circle);
-                        break;
+        if (coalescedUpdates > 0)
+            this.applyPendingUpdates();
 
-                    case "6":
-                        image = BitmapFactory.decodeResource(getResources(), R.drawable.one);
-                        break;
+        this.invalidateDirtyCells();
 
-                    case "7":
-                        image = BitmapFactory.decodeResource(getResources(), R.drawable.two);
-                        break;
+        if (coalescedUpdates > 0) {
 
-                    case "8":
-                        image = BitmapFactory.decodeResource(getResources(), R.drawable.three);
-                        break;
+            lastCoalescedCount = coalescedUpdates;
 
-                    case "9":
-                        image = BitmapFactory.decodeResource(getResources(), R.drawable.four);
-                        break;
+            if (frameListener != null)
+                frameListener.onFrameApplied(coalescedUpdates);
+        }
 
-                    case "A":
-                        image = BitmapFactory.decodeResource(getResources(), R.drawable.five);
-                        break;
+        if (afterFrame != null) {
 
-                    case "B":
-                        image = BitmapFactory.decodeResource(getResources(), R.drawable.letter_a);
-                        break;
+            Runnable runnable = afterFrame;
 
-                    case "C":
-                        image = BitmapFactory.decodeResource(getResources(), R.drawable.letter_b);
-                        break;
+            afterFrame = null;
 
-                    case "D":
-                        image = BitmapFactory.decodeResource(getResources(), R.drawable.letter_c);
-                        break;
+            runnable.run();
+        }
+    }
 
-                    case "E":
-                        image = BitmapFactory.decodeResource(getResources(), R.drawable.letter_d);
-                        break;
 
-                    case "F":
-                        image = BitmapFactory.decodeResource(getResources(), R.drawable.letter_e);
-                        break;
+    public void runAfterPendingFrame(Runnable runnable) {
 
-                    default:
-                        break;
-                }
+        if (!frameScheduled) {
 
-                canvas.drawBitmap(image, null, rect, null);
-            }
+            runnable.run();
 
+            return;
         }
-    }
 
+        afterFrame = runnable;
+    }
 
-    private class Cell {
-        float toX;
-        float toY;
-        float fromX;
-        float fromY;
-
-        Paint paint;
-        String type;
 
-        private Cell(float fromX, float fromY, float toX, float endY, Paint paint, String type) {
+    public void setFrameListener(FrameListener frameListener) {
+        this.frameListener = frameListener;
+    }
 
-            this.fromX = fromX;
 
-            this.fromY = fromY;
+    public int getLastCoalescedCount() {
+        return lastCoalescedCount;
+    }
 
-            this.toX = toX;
 
-            this.toY = endY;
+    private void invalidateDirtyCells() {
 
-            this.paint = paint;
+        if (!this.getMapDrawn()) {
 
-            this.type = type;
+            this.invalidate();
 
+            return;
         }
 
-        public void setType(String type) {
-
-            this.type = type;
+        dirtyRegion.setEmpty();
 
-            switch (type) {
+        this.flushDirtyCells(dirtyRegion);
 
-                case "obstacle":
-                    this.paint = obstacleColor;
-                    break;
+        if (!dirtyRegion.isEmpty())
+            this.invalidate(dirtyRegion);
 
-                case "robot":
-                    this.paint = robotColor;
-                    break;
-
-                case "end":
-                    this.paint = endColor;
-                    break;
-
-                case "start":
-                    this.paint = startColor;
-                    break;
+    }
 
-                case "waypoint":
-                    this.paint = wpColor;
-                    break;
 
-                case "unexplored":
-                    this.paint = unexploredColor;
-                    break;
+    private void renderAxisLabels(Canvas canvas) {
 
-                case "explored":
-                    this.paint = exploredColor;
-                    break;
+        for (int x = 1; x <= COLUMN; x++) {
 
-                case "image":
-                    this.paint = imageColor;
-                    break;
+            if (x > 10)
+                canvas.drawText(Integer.toString(x - 1), cells[x][20].fromX + (cellsSize / 5), cells[x][20].fromY + (cellsSize / 3), whiteColor);
+            else
+                canvas.drawText(Integer.toString(x - 1), cells[x][20].fromX + (cellsSize / 3), cells[x][20].fromY + (cellsSize / 3), whiteColor);
+        }
 
-                case "fastestPath":
-                    this.paint = fastestPathColor;
-                    break;
+        for (int y = 0; y < ROW; y++) {
 
-                default:
-                    break;
-            }
+            if ((20 - (y + 1)) > 9)
+                canvas.drawText(Integer.toString(20 - (y + 1)), cells[0][y].fromX + (cellsSize / 2), cells[0][y].fromY + (cellsSize / 1.5f), whiteColor);
+            else
+                canvas.drawText(Integer.toString(20 - (y + 1)), cells[0][y].fromX + (cellsSize / 1.5f), cells[0][y].fromY + (cellsSize / 1.5f), whiteColor);
         }
+
     }
 
 
-    private void calculateDimension() {
-        this.setCellSize(getWidth() / (COLUMN + 1));
-    }
+    private void renderRobot(Canvas canvas, int[] curCoord) {
 
+        int radius = gridModel.getFootprintRadius();
 
-    private void setCellSize(float cellSize) {
-        GridMap.cellsSize = cellSize;
-    }
+        int column = curCoord[0];
 
+        int internalRowCoordinates = this.convertRow(curCoord[1]);
 
-    private float getCellSize() {
-        return cellsSize;
-    }
+        float left = cells[column - radius][internalRowCoordinates].fromX;
 
+        float right = cells[column + radius][internalRowCoordinates].toX;
 
-    public void updateMapInformation() throws JSONException {
+        float top = cells[column][internalRowCoordinates - radius].fromY;
 
-        JSONObject mapInformation = this.getReceivedPayload();
+        float bottom = cells[column][internalRowCoordinates + radius].toY;
 
-        JSONArray mapInfoJsonArray;
+        float centerX = (cells[column][internalRowCoordinates].fromX + cells[column][internalRowCoordinates].toX) / 2;
 
-        JSONObject mapInfoJsonObject;
+        float centerY = (cells[column][internalRowCoordinates].fromY + cells[column][internalRowCoordinates].toY) / 2;
 
-        String explored;
+        for (int y = internalRowCoordinates - radius + 1; y <= internalRowCoordinates + radius; y++)
+            canvas.drawLine(left, cells[column][y].fromY - (cellsSize / 30), right, cells[column][y].fromY - (cellsSize / 30), robotColor);
 
+        for (int x = column - radius; x < column + radius; x++)
+            canvas.drawLine(cells[x][internalRowCoordinates].fromX - (cellsSize / 30) + cellsSize, top, cells[x][internalRowCoordinates].fromX - (cellsSize / 30) + cellsSize, bottom, robotColor);
 
-        if (mapInformation == null || mapInformation.names() == null)
-            return;
 
-        for (int i = 0; i < mapInformation.names().length(); i++) {
+        switch (this.getRobotFacing()) {
 
-            switch (mapInformation.names().getString(i)) {
+            case "up":
+                canvas.drawLine(left, bottom, centerX, top, blackColor);
+                canvas.drawLine(centerX, top, right, bottom, blackColor);
+                break;
 
+            case "down":
+                canvas.drawLine(left, top, centerX, bottom, blackColor);
+                canvas.drawLine(centerX, bottom, right, top, blackColor);
+                break;
 
-                case "map":
+            case "right":
+                canvas.drawLine(left, top, right, centerY, blackColor);
+                canvas.drawLine(right, centerY, left, bottom, blackColor);
+                break;
 
-                    mapInfoJsonArray = mapInformation.getJSONArray("map");
+            case "left":
+                canvas.drawLine(right, top, left, centerY, blackColor);
+                canvas.drawLine(left, centerY, right, bottom, blackColor);
+                break;
 
-                    mapInfoJsonObject = mapInfoJsonArray.getJSONObject(0);
+            default:
+                break;
+        }
 
+    }
 
-                    try {
 
-                        if (robotRenderable)
-                            this.setOldRobotCoordinates(currentCoordinates[0], currentCoordinates[1]);
+    private void renderFastestPath(Canvas canvas) {
 
-                        String direction = mapInfoJsonObject.getString("robotFacing");
+        for (int i = 0; i < fastestPathCells.length; i++) {
 
-                        switch (direction) {
+            int cell = fastestPathCells[i];
 
-                            case "0":
-                                direction = "up";
-                                break;
+            if (!gridModel.is(cell, CellType.EXPLORED) && !gridModel.is(cell, CellType.UNEXPLORED))
+                continue;
 
-                            case "1":
-                                direction = "down";
-                                break;
+            int x = GridModel.column(cell);
 
-                            case "2":
-                                direction = "right";
-                                break;
+            int y = GridModel.row(cell);
 
-                            case "3":
-                                direction = "left";
-                                break;
-                        }
+            canvas.drawRect(cells[x][y].fromX, cells[x][y].fromY, cells[x][y].toX, cells[x][y].toY, fastestPathColor);
+        }
+    }
 
-                        this.setCurCoordinates(mapInfoJsonObject.getInt("robotX") + 1, mapInfoJsonObject.getInt("robotY") + 1, direction);
 
-                        robotRenderable = true;
+    private void renderImages(Canvas canvas) {
 
-                    } catch (JSONException e) {
+        if (imageTiles == null)
+            imageTiles = new ImageTileCache(getResources());
 
-                        e.printStackTrace();
+        for (int i = 0; i < imageIndex.size(); i++) {
 
-                    }
+            int cell = imageIndex.cellAt(i);
 
+            canvas.drawBitmap(imageTiles.getTile(imageIndex.getImageId(cell), (int) cellsSize), GridModel.column(cell) * cellsSize, GridModel.row(cell) * cellsSize, null);
+        }
+    }
 
-                    explored = mapInfoJsonObject.getString("explored");
 
-                    explored = "F" + explored;
+    private static class Cell {
+        float toX;
+        float toY;
+        float fromX;
+        float fromY;
 
-                    explored = new BigInteger(explored, 16).toString(2);
+        private Cell(float fromX, float fromY, float toX, float endY) {
 
-                    explored = explored.substring(4);
+            this.fromX = fromX;
 
-                    int x, y;
+            this.fromY = fromY;
 
-                    for (int j = 0; j < explored.length(); j += 2) {
+            this.toX = toX;
 
-                        y = 19 - (j / 30);
-                        x = 1 + (j / 2) - ((19 - y) * 15);
+            this.toY = endY;
 
-                        if (!cells[x][y].type.equals("robot")) {
+        }
+    }
 
 
-                            if ((String.valueOf(explored.charAt(j))).equals("1") && (String.valueOf(explored.charAt(j + 1))).equals("1")) {
+    private void calculateDimension() {
+        this.setCellSize(getWidth() / (COLUMN + 1));
+    }
 
-                                cells[x][y].setType("explored");
 
+    private void setCellSize(float cellSize) {
+        GridMap.cellsSize = cellSize;
+    }
 
-                            } else if ((String.valueOf(explored.charAt(j))).equals("1")) {
 
-                                cells[x][y].setType("explored");
+    private float getCellSize() {
+        return cellsSize;
+    }
 
 
-                            } else if ((String.valueOf(explored.charAt(j + 1))).equals("1")) {
+    public void updateMapInformation() {
 
-                                this.setObstacleCoordinates(x, 20 - y);
+        MapUpdate mapUpdate = this.getReceivedPayload();
 
+        if (mapUpdate == null)
+            return;
 
-                            } else {
+        mapUpdateCoalescer.offer(mapUpdate);
 
-                                cells[x][y].setType("unexplored");
-                            }
+        HotPathMetrics.increment(HotPathMetrics.MAP_UPDATES);
 
-                        }
+        this.scheduleFrame();
+    }
 
-                    }
 
-                    break;
+    private void applyPendingUpdates() {
 
-                case "image":
-                    mapInfoJsonArray = mapInformation.getJSONArray("image");
+        long applyStart = System.nanoTime();
 
-                    for (int j = 0; j < mapInfoJsonArray.length(); j++) {
+        Trace.beginSection("apply");
 
-                        mapInfoJsonObject = mapInfoJsonArray.getJSONObject(j);
+        if (mapUpdateCoalescer.hasRobot()) {
 
-                        String imageString = mapInfoJsonObject.getString("imageString");
+            int column = mapUpdateCoalescer.getRobotX() + 1;
 
-                        if (imageString.length() != 0) {
+            int row = mapUpdateCoalescer.getRobotY() + 1;
 
-                            while (imageString.length() > 0) {
+            if (gridModel.fitsArena(column, this.convertRow(row))) {
 
-                                String nextChunk = imageString.substring(0, 5);
+                if (robotRenderable)
+                    this.setOldRobotCoordinates(currentCoordinates[0], currentCoordinates[1]);
 
-                                String imageX = nextChunk.substring(0, 2);
+                this.setCurCoordinates(column, row, mapUpdateCoalescer.getRobotFacing());
 
-                                String imageY = nextChunk.substring(2, 4);
+                robotRenderable = true;
+            }
+        }
 
-                                String imageType = nextChunk.substring(4);
+        if (mapUpdateCoalescer.getExplored() != null) {
 
-                                this.setImageCoordinate(Integer.parseInt(imageX), Integer.parseInt(imageY), imageType);
+            int decodedCells = MapDescriptor.decodeExplored(mapUpdateCoalescer.getExplored(), decodedCellStates);
 
-                                imageString = imageString.substring(5);
-                            }
-                        }
+            gridModel.applyDescriptor(decodedCellStates, decodedCells);
+        }
 
+        for (int i = 0; i < mapUpdateCoalescer.getImageRecordCount(); i++)
+            this.setImageCoordinate(mapUpdateCoalescer.getImageX(i), mapUpdateCoalescer.getImageY(i), mapUpdateCoalescer.getImageType(i));
 
-                    }
-                    break;
+        mapUpdateCoalescer.clear();
 
-                default:
-                    break;
-            }
+        HotPathMetrics.increment(HotPathMetrics.MAP_APPLIES);
 
-        }
+        Trace.endSection();
 
-        this.invalidate();
+        HotPathMetrics.recordNanos(HotPathMetrics.APPLY, System.nanoTime() - applyStart);
     }
 
-    public void setReceivedPayload(JSONObject receivedPayload) {
+
+    public void setReceivedPayload(MapUpdate receivedPayload) {
 
         GridMap.receivedPayload = receivedPayload;
 
@@ -1085,7 +1237,7 @@ public class GridMap extends View {
     }
 
 
-    public JSONObject getReceivedPayload() {
+    public MapUpdate getReceivedPayload() {
         return receivedPayload;
     }
 
@@ -1105,17 +1257,22 @@ public class GridMap extends View {
 
             if (startCoordinatesStatus) {
 
+                if (!gridModel.canStand(column, this.convertRow(row)))
+                    return true;
+
                 if (robotRenderable) {
 
                     int[] startCoordinates = this.getStartCoordinates();
 
-                    if (startCoordinates[0] >= 2 && startCoordinates[1] >= 2) {
+                    if (gridModel.fitsArena(startCoordinates[0], this.convertRow(startCoordinates[1]))) {
+
+                        int radius = gridModel.getFootprintRadius();
 
                         startCoordinates[1] = this.convertRow(startCoordinates[1]);
 
-                        for (int x = startCoordinates[0] - 1; x <= startCoordinates[0] + 1; x++)
-                            for (int y = startCoordinates[1] - 1; y <= startCoordinates[1] + 1; y++)
-                                cells[x][y].setType("unexplored");
+                        for (int x = startCoordinates[0] - radius; x <= startCoordinates[0] + radius; x++)
+                            for (int y = startCoordinates[1] - radius; y <= startCoordinates[1] + radius; y++)
+                                gridModel.setType(x, y, CellType.UNEXPLORED);
 
                     }
 
@@ -1149,7 +1306,7 @@ public class GridMap extends View {
                 if (spToggle.isChecked())
                     spToggle.toggle();
 
-                this.invalidate();
+                this.scheduleFrame();
 
                 return true;
 
@@ -1160,7 +1317,7 @@ public class GridMap extends View {
                 int[] waypointCoordinates = this.getWPCoordinates();
 
                 if (waypointCoordinates[0] >= 1 && waypointCoordinates[1] >= 1)
-                    cells[waypointCoordinates[0]][this.convertRow(waypointCoordinates[1])].setType("unexplored");
+                    gridModel.setType(waypointCoordinates[0], this.convertRow(waypointCoordinates[1]), CellType.UNEXPLORED);
 
                 setWPStatus = false;
 
@@ -1177,7 +1334,7 @@ public class GridMap extends View {
                 if (wpToggle.isChecked())
                     wpToggle.toggle();
 
-                this.invalidate();
+                this.scheduleFrame();
 
                 return true;
 
@@ -1187,31 +1344,29 @@ public class GridMap extends View {
 
                 this.setObstacleCoordinates(column, row);
 
-                this.invalidate();
+                this.scheduleFrame();
 
                 return true;
             }
 
             if (setExploredStatus) {
 
-                cells[column][20 - row].setType("explored");
+                gridModel.setType(column, 20 - row, CellType.EXPLORED);
+
+                gridModel.setOccupied(column, 20 - row, false);
 
-                this.invalidate();
+                this.scheduleFrame();
 
                 return true;
             }
 
             if (unexploredCellStatus) {
 
-                ArrayList<int[]> obstacleCoordinates = this.getObstacleCoordinates();
-
-                cells[column][20 - row].setType("unexplored");
+                gridModel.setType(column, 20 - row, CellType.UNEXPLORED);
 
-                for (int i = 0; i < obstacleCoordinates.size(); i++)
-                    if (obstacleCoordinates.get(i)[0] == column && obstacleCoordinates.get(i)[1] == row)
-                        obstacleCoordinates.remove(i);
+                gridModel.setOccupied(column, 20 - row, false);
 
-                this.invalidate();
+                this.scheduleFrame();
 
                 return true;
             }
@@ -1261,92 +1416,28 @@ public class GridMap extends View {
 
     public JSONObject getCreateJsonObject() {
 
-        String explored = "11";
-
-        String obstacle = "";
-
-        String hex = "";
-
-        String hexExplored;
-
-        BigInteger hexBigIntegerObstacle, hexBigIntegerExplored;
-
         int[] wpCoordinates = this.getWPCoordinates();
 
         int[] currentCoordinates = this.getCurrentCoordinates();
 
         String robotFacing = this.getRobotFacing();
 
-        List<int[]> obstacleCoordinates = new ArrayList<>(this.getObstacleCoordinates());
-
-        List<String[]> imageCoordinates = new ArrayList<>(this.getImageCoordinates());
-
         TextView robotStatus = ((Activity) this.getContext()).findViewById(R.id.robotStatusTextView);
 
 
         JSONObject map = new JSONObject();
 
-        for (int y = ROW - 1; y >= 0; y--) {
-            for (int x = 1; x <= COLUMN; x++) {
-                if (cells[x][y].type.equals("explored") || cells[x][y].type.equals("robot") || cells[x][y].type.equals("obstacle") || cells[x][y].type.equals("image"))
-                    explored = explored + "1";
-                else
-                    explored = explored + "0";
-            }
-        }
-
-        explored = explored + "11";
-
-
-        hexBigIntegerExplored = new BigInteger(explored, 2);
-
-        hexExplored = hexBigIntegerExplored.toString(16);
-
-
-        for (int y = ROW - 1; y >= 0; y--) {
-
-            for (int x = 1; x <= COLUMN; x++) {
-
-                if (cells[x][y].type.equals("explored") || cells[x][y].type.equals("robot")) {
-
-                    obstacle = obstacle + "0";
-
-                } else if (cells[x][y].type.equals("obstacle") || cells[x][y].type.equals("image")) {
-
-                    obstacle = obstacle + "1";
-                }
-
-            }
-
-        }
-
-        while ((obstacle.length() % 8) != 0) {
-
-            obstacle = obstacle + "0";
-
-        }
-
-        if (!obstacle.equals("")) {
-
-            hexBigIntegerObstacle = new BigInteger(obstacle, 2);
-
-            hex = hexBigIntegerObstacle.toString(16);
-
-            if (hex.length() % 2 != 0)
-
-                hex = "0" + hex;
-
-        }
+        int obstacleLength = MapDescriptor.obstacleBitLength(gridModel);
 
         try {
 
-            map.put("explored", hexExplored);
+            map.put("explored", new String(exportBuffer, 0, MapDescriptor.encodeExplored(gridModel, exportBuffer)));
 
-            map.put("length", obstacle.length());
+            map.put("length", obstacleLength);
 
-            if (!obstacle.equals(""))
+            if (obstacleLength > 0)
 
-                map.put("obstacle", hex);
+                map.put("obstacle", new String(exportBuffer, 0, MapDescriptor.encodeObstacle(gridModel, exportBuffer)));
 
         } catch (JSONException e) {
 
@@ -1404,15 +1495,15 @@ public class GridMap extends View {
 
         JSONArray jsonObstacle = new JSONArray();
 
-        for (int i = 0; i < obstacleCoordinates.size(); i++)
+        for (int i = gridModel.nextOccupied(0); i >= 0; i = gridModel.nextOccupied(i + 1))
 
             try {
 
                 JSONObject ob = new JSONObject();
 
-                ob.put("x", obstacleCoordinates.get(i)[0]);
+                ob.put("x", GridModel.column(i));
 
-                ob.put("y", obstacleCoordinates.get(i)[1]);
+                ob.put("y", this.convertRow(GridModel.row(i)));
 
                 jsonObstacle.put(ob);
 
@@ -1424,17 +1515,19 @@ public class GridMap extends View {
 
         JSONArray jsonImage = new JSONArray();
 
-        for (int i = 0; i < imageCoordinates.size(); i++) {
+        for (int i = 0; i < imageIndex.size(); i++) {
+
+            int cell = imageIndex.cellAt(i);
 
             try {
 
                 JSONObject image = new JSONObject();
 
-                image.put("imageX", Integer.parseInt(imageCoordinates.get(i)[0]));
+                image.put("imageX", GridModel.column(cell));
 
-                image.put("imageY", Integer.parseInt(imageCoordinates.get(i)[1]));
+                image.put("imageY", this.convertRow(GridModel.row(cell)));
 
-                image.put("imageType", imageCoordinates.get(i)[2]);
+                image.put("imageType", Integer.toHexString(imageIndex.getImageId(cell)).toUpperCase(Locale.US));
 
                 jsonImage.put(image);
 
@@ -1518,23 +1611,17 @@ public class GridMap extends View {
 
         robotStatusTextView.setText("None");
 
-        sharedPreferences();
-
         updateRobotAxis(0, 0);
 
-        editor.putString("receivedText", "");
-
-        editor.putString("sentText", "");
+        MessageJournal.getInstance(this.getContext()).clearAll();
 
-        editor.putString("image", "");
 
 
-        editor.commit();
+        manualMapInfo = null;
 
+        gridModel.clearOccupied();
 
-
-        manualMapInfo = null;
-        obstacleCoordinates = new ArrayList<>();
+        fastestPathCells = new int[0];
 
         wpCoordinates = new int[]{-1, -1};
 
@@ -1554,7 +1641,9 @@ public class GridMap extends View {
 
         autoUpdate = false;
 
-        imageCoordinates = new ArrayList<>();
+        imageIndex.clear();
+
+        mapUpdateCoalescer.clear();
 
         receivedPayload = null;
 
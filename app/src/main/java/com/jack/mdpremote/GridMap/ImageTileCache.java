@@ -0,0 +1,77 @@
+package com.jack.mdpremote.GridMap;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+
+import com.jack.mdpremote.R;
+
+
+class ImageTileCache {
+
+    private static final int[] DRAWABLES = new int[]{
+            R.drawable.arrow_error,
+            R.drawable.up,
+            R.drawable.down,
+            R.drawable.right,
+            R.drawable.left,
+            R.drawable.circle,
+            R.drawable.one,
+            R.drawable.two,
+            R.drawable.three,
+            R.drawable.four,
+            R.drawable.five,
+            R.drawable.letter_a,
+            R.drawable.letter_b,
+            R.drawable.letter_c,
+            R.drawable.letter_d,
+            R.drawable.letter_e
+    };
+
+    private final Resources resources;
+
+    private final Bitmap[] sources = new Bitmap[DRAWABLES.length];
+
+    private final Bitmap[] tiles = new Bitmap[DRAWABLES.length];
+
+    private int tileSize = -1;
+
+
+    ImageTileCache(Resources resources) {
+        this.resources = resources;
+    }
+
+
+    Bitmap getTile(int imageId, int size) {
+
+        if (size != tileSize)
+            this.rebuild(size);
+
+        if (imageId <= 0 || imageId >= DRAWABLES.length)
+            imageId = 0;
+
+        if (tiles[imageId] == null) {
+
+            if (sources[imageId] == null)
+                sources[imageId] = BitmapFactory.decodeResource(resources, DRAWABLES[imageId]);
+
+            tiles[imageId] = Bitmap.createScaledBitmap(sources[imageId], tileSize, tileSize, true);
+        }
+
+        return tiles[imageId];
+    }
+
+
+    private void rebuild(int size) {
+
+        for (int i = 0; i < tiles.length; i++) {
+
+            if (tiles[i] != null && tiles[i] != sources[i])
+                tiles[i].recycle();
+
+            tiles[i] = null;
+        }
+
+        tileSize = Math.max(1, size);
+    }
+}
@@ -0,0 +1,146 @@
+package com.jack.mdpremote.Journal;
+
+import android.content.Context;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+
+public class CoverageRecorder {
+
+    private static final String DIRECTORY_NAME = "coverage";
+
+    private final File directory;
+
+    private long runStart = -1;
+
+    private long[] elapsed = new long[64];
+
+    private short[] explored = new short[64];
+
+    private short[] obstacles = new short[64];
+
+    private int size = 0;
+
+
+    public CoverageRecorder(Context context) {
+        this.directory = new File(context.getApplicationContext().getFilesDir(), DIRECTORY_NAME);
+    }
+
+
+    public void start(long startTime) {
+
+        runStart = startTime;
+
+        size = 0;
+    }
+
+
+    public boolean isRecording() {
+        return runStart >= 0;
+    }
+
+
+    public void record(long elapsedMs, int exploredCount, int obstacleCount) {
+
+        if (runStart < 0)
+            return;
+
+        if (size > 0 && explored[size - 1] == exploredCount && obstacles[size - 1] == obstacleCount)
+            return;
+
+        if (size == elapsed.length) {
+
+            elapsed = Arrays.copyOf(elapsed, size * 2);
+
+            explored = Arrays.copyOf(explored, size * 2);
+
+            obstacles = Arrays.copyOf(obstacles, size * 2);
+        }
+
+        elapsed[size] = elapsedMs;
+
+        explored[size] = (short) exploredCount;
+
+        obstacles[size] = (short) obstacleCount;
+
+        size++;
+    }
+
+
+    public void finish(long elapsedMs, int exploredCount, int obstacleCount, final int cellCount) {
+
+        if (runStart < 0)
+            return;
+
+        this.record(elapsedMs, exploredCount, obstacleCount);
+
+        final File file = new File(directory, "run_" + runStart + ".csv");
+
+        final long[] elapsed = Arrays.copyOf(this.elapsed, size);
+
+        final short[] explored = Arrays.copyOf(this.explored, size);
+
+        final short[] obstacles = Arrays.copyOf(this.obstacles, size);
+
+        runStart = -1;
+
+        size = 0;
+
+        new Thread(new Runnable() {
+            @Override
+            public void run() {
+                write(file, elapsed, explored, obstacles, cellCount);
+            }
+        }, "CoverageRecorder").start();
+    }
+
+
+    private void write(File file, long[] elapsed, short[] explored, short[] obstacles, int cellCount) {
+
+        if (!directory.isDirectory() && !directory.mkdirs())
+            return;
+
+        BufferedWriter writer = null;
+
+        try {
+
+            writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), Charset.forName("UTF-8")));
+
+            writer.write("elapsed_ms,explored,obstacles,unexplored\n");
+
+            for (int i = 0; i < elapsed.length; i++) {
+                writer.write(Long.toString(elapsed[i]));
+                writer.write(',');
+                writer.write(Integer.toString(explored[i]));
+                writer.write(',');
+                writer.write(Integer.toString(obstacles[i]));
+                writer.write(',');
+                writer.write(Integer.toString(cellCount - explored[i]));
+                writer.write('\n');
+            }
+
+        } catch (IOException e) {
+
+            e.printStackTrace();
+
+        } finally {
+
+            try {
+
+                if (writer != null)
+                    writer.close();
+
+            } catch (IOException e) {
+
+                e.printStackTrace();
+
+            }
+        }
+    }
+}
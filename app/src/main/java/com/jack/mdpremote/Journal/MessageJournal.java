@@ -0,0 +1,190 @@
+package com.jack.mdpremote.Journal;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Process;
+
+import java.io.File;
+import java.io.IOException;
+
+
+public class MessageJournal {
+
+    public enum Channel {
+        RECEIVED,
+        SENT,
+        IMAGE
+    }
+
+    private static final String FILE_NAME = "message_journal.log";
+
+    private static final long MAX_FILE_LENGTH = 4 * 1024 * 1024;
+
+    private static final int RING_CAPACITY = 200;
+
+    private static final long SYNC_DELAY_MS = 1000;
+
+    private static MessageJournal instance;
+
+    private final LineRing[] rings = new LineRing[Channel.values().length];
+
+    private final Handler writeHandler;
+
+    private final RollingLogWriter writer;
+
+    private boolean syncPending = false;
+
+
+    public static synchronized MessageJournal getInstance(Context context) {
+
+        if (instance == null)
+            instance = new MessageJournal(new File(context.getApplicationContext().getFilesDir(), FILE_NAME));
+
+        return instance;
+    }
+
+
+    private MessageJournal(File file) {
+
+        this.writer = new RollingLogWriter(file, MAX_FILE_LENGTH);
+
+        for (int i = 0; i < rings.length; i++)
+            rings[i] = new LineRing(RING_CAPACITY);
+
+        HandlerThread writeThread = new HandlerThread("MessageJournal", Process.THREAD_PRIORITY_BACKGROUND);
+
+        writeThread.start();
+
+        writeHandler = new Handler(writeThread.getLooper());
+
+    }
+
+
+    public void append(final Channel channel, final String line) {
+
+        final long timestamp = System.currentTimeMillis();
+
+        rings[channel.ordinal()].add(line);
+
+        SessionState.getInstance().markChanged(1 << channel.ordinal());
+
+        writeHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                write(timestamp, channel, line);
+            }
+        });
+    }
+
+
+    public String getText(Channel channel) {
+        return rings[channel.ordinal()].getText();
+    }
+
+
+    public void clear(Channel channel) {
+
+        rings[channel.ordinal()].clear();
+
+        SessionState.getInstance().markChanged(1 << channel.ordinal());
+    }
+
+
+    public void clearAll() {
+
+        for (LineRing ring : rings)
+            ring.clear();
+
+        SessionState.getInstance().markChanged(SessionState.RECEIVED_LOG | SessionState.SENT_LOG | SessionState.IMAGE_LOG);
+    }
+
+
+    private void write(long timestamp, Channel channel, String line) {
+
+        try {
+
+            writer.write(timestamp, channel.name(), line);
+
+        } catch (IOException e) {
+
+            e.printStackTrace();
+
+            return;
+        }
+
+        if (!syncPending) {
+
+            syncPending = true;
+
+            writeHandler.postDelayed(syncRunnable, SYNC_DELAY_MS);
+        }
+    }
+
+
+    private final Runnable syncRunnable = new Runnable() {
+        @Override
+        public void run() {
+
+            syncPending = false;
+
+            try {
+
+                writer.sync();
+
+            } catch (IOException e) {
+
+                e.printStackTrace();
+
+            }
+        }
+    };
+
+
+    private static class LineRing {
+
+        private final String[] lines;
+
+        private int head = 0;
+
+        private int size = 0;
+
+
+        private LineRing(int capacity) {
+            lines = new String[capacity];
+        }
+
+
+        private synchronized void add(String line) {
+
+            lines[(head + size) % lines.length] = line;
+
+            if (size < lines.length)
+                size++;
+            else
+                head = (head + 1) % lines.length;
+        }
+
+
+        private synchronized void clear() {
+
+            for (int i = 0; i < lines.length; i++)
+                lines[i] = null;
+
+            head = 0;
+
+            size = 0;
+        }
+
+
+        private synchronized String getText() {
+
+            StringBuilder text = new StringBuilder();
+
+            for (int i = 0; i < size; i++)
+                text.append("\n ").append(lines[(head + i) % lines.length]);
+
+            return text.toString();
+        }
+    }
+}
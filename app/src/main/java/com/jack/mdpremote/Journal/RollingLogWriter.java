@@ -0,0 +1,140 @@
+package com.jack.mdpremote.Journal;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.Charset;
+
+
+class RollingLogWriter {
+
+    static final String ROLLED_SUFFIX = ".1";
+
+    private final File file;
+
+    private final File rolledFile;
+
+    private final long maxLength;
+
+    private FileOutputStream fileOutputStream;
+
+    private BufferedWriter writer;
+
+    private long length;
+
+
+    RollingLogWriter(File file, long maxLength) {
+
+        this.file = file;
+
+        this.rolledFile = new File(file.getPath() + ROLLED_SUFFIX);
+
+        this.maxLength = maxLength;
+    }
+
+
+    void write(long timestamp, String channel, String line) throws IOException {
+
+        String time = Long.toString(timestamp);
+
+        long recordLength = time.length() + channel.length() + utf8Length(line) + 3;
+
+        if (writer == null)
+            this.open();
+
+        if (length > 0 && length + recordLength > maxLength)
+            this.roll();
+
+        writer.write(time);
+        writer.write(' ');
+        writer.write(channel);
+        writer.write(' ');
+        writer.write(line);
+        writer.write('\n');
+
+        length += recordLength;
+    }
+
+
+    void sync() throws IOException {
+
+        if (writer == null)
+            return;
+
+        writer.flush();
+
+        fileOutputStream.getFD().sync();
+    }
+
+
+    long getLength() {
+        return length;
+    }
+
+
+    void close() throws IOException {
+
+        if (writer == null)
+            return;
+
+        writer.close();
+
+        writer = null;
+
+        fileOutputStream = null;
+    }
+
+
+    private void open() throws IOException {
+
+        File directory = file.getParentFile();
+
+        if (directory != null && !directory.isDirectory() && !directory.mkdirs())
+            throw new IOException("Cannot create " + directory);
+
+        length = file.length();
+
+        fileOutputStream = new FileOutputStream(file, true);
+
+        writer = new BufferedWriter(new OutputStreamWriter(fileOutputStream, Charset.forName("UTF-8")));
+    }
+
+
+    private void roll() throws IOException {
+
+        this.close();
+
+        if (rolledFile.exists() && !rolledFile.delete())
+            throw new IOException("Cannot delete " + rolledFile);
+
+        if (!file.renameTo(rolledFile))
+            throw new IOException("Cannot rename " + file + " to " + rolledFile);
+
+        this.open();
+    }
+
+
+    private static int utf8Length(String line) {
+
+        int length = 0;
+
+        for (int i = 0; i < line.length(); i++) {
+
+            char c = line.charAt(i);
+
+            if (c < 0x80)
+                length += 1;
+            else if (c < 0x800)
+                length += 2;
+            else if (Character.isHighSurrogate(c) && i + 1 < line.length() && Character.isLowSurrogate(line.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else
+                length += 3;
+        }
+
+        return length;
+    }
+}
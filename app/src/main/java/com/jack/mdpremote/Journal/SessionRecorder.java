@@ -0,0 +1,226 @@
+package com.jack.mdpremote.Journal;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Process;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+
+public class SessionRecorder {
+
+    public static final int INBOUND = 0;
+
+    public static final int OUTBOUND = 1;
+
+    static final byte[] MAGIC = new byte[]{'M', 'D', 'P', 'S'};
+
+    static final int VERSION = 1;
+
+    private static final String DIRECTORY_NAME = "sessions";
+
+    private static final String FILE_SUFFIX = ".mdps";
+
+    private static SessionRecorder instance;
+
+    private final File directory;
+
+    private final Handler writeHandler;
+
+    private volatile boolean recording = false;
+
+    private OutputStream outputStream;
+
+    private long startNanos;
+
+    private long lastMicros;
+
+
+    public static synchronized SessionRecorder getInstance(Context context) {
+
+        if (instance == null)
+            instance = new SessionRecorder(new File(context.getApplicationContext().getFilesDir(), DIRECTORY_NAME));
+
+        return instance;
+    }
+
+
+    private SessionRecorder(File directory) {
+
+        this.directory = directory;
+
+        HandlerThread writeThread = new HandlerThread("SessionRecorder", Process.THREAD_PRIORITY_BACKGROUND);
+
+        writeThread.start();
+
+        writeHandler = new Handler(writeThread.getLooper());
+    }
+
+
+    public boolean isRecording() {
+        return recording;
+    }
+
+
+    public synchronized void start() {
+
+        if (recording)
+            return;
+
+        final File file = new File(directory, "session_" + System.currentTimeMillis() + FILE_SUFFIX);
+
+        final long startNanos = System.nanoTime();
+
+        recording = true;
+
+        writeHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                open(file, startNanos);
+            }
+        });
+    }
+
+
+    public synchronized void stop() {
+
+        if (!recording)
+            return;
+
+        recording = false;
+
+        writeHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                close();
+            }
+        });
+    }
+
+
+    public void record(final int direction, final byte[] data, final int offset, final int length) {
+
+        if (!recording)
+            return;
+
+        final long timestamp = System.nanoTime();
+
+        final byte[] copy = new byte[length];
+
+        System.arraycopy(data, offset, copy, 0, length);
+
+        writeHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                write(direction, timestamp, copy);
+            }
+        });
+    }
+
+
+    public File getLatestSession() {
+
+        File[] files = directory.listFiles();
+
+        File latest = null;
+
+        if (files == null)
+            return null;
+
+        for (File candidate : files)
+            if (candidate.getName().endsWith(FILE_SUFFIX) && (latest == null || candidate.lastModified() > latest.lastModified()))
+                latest = candidate;
+
+        return latest;
+    }
+
+
+    private void open(File file, long startNanos) {
+
+        if (!directory.isDirectory() && !directory.mkdirs())
+            return;
+
+        try {
+
+            outputStream = new BufferedOutputStream(new FileOutputStream(file), 16 * 1024);
+
+            outputStream.write(MAGIC);
+
+            outputStream.write(VERSION);
+
+            this.startNanos = startNanos;
+
+            this.lastMicros = 0;
+
+        } catch (IOException e) {
+
+            e.printStackTrace();
+
+            outputStream = null;
+        }
+    }
+
+
+    private void write(int direction, long timestamp, byte[] data) {
+
+        if (outputStream == null)
+            return;
+
+        long micros = Math.max(lastMicros, (timestamp - startNanos) / 1000);
+
+        try {
+
+            outputStream.write(direction);
+
+            writeVarLong(outputStream, micros - lastMicros);
+
+            writeVarLong(outputStream, data.length);
+
+            outputStream.write(data);
+
+            lastMicros = micros;
+
+        } catch (IOException e) {
+
+            e.printStackTrace();
+
+        }
+    }
+
+
+    private void close() {
+
+        if (outputStream == null)
+            return;
+
+        try {
+
+            outputStream.close();
+
+        } catch (IOException e) {
+
+            e.printStackTrace();
+
+        }
+
+        outputStream = null;
+    }
+
+
+    private static void writeVarLong(OutputStream outputStream, long value) throws IOException {
+
+        while ((value & ~0x7FL) != 0) {
+
+            outputStream.write((int) ((value & 0x7F) | 0x80));
+
+            value >>>= 7;
+        }
+
+        outputStream.write((int) value);
+    }
+}
@@ -0,0 +1,178 @@
+package com.jack.mdpremote.Journal;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+
+
+public class SessionReplayer extends Thread {
+
+    public static final float MAX_SPEED = 0;
+
+    private final File file;
+
+    private final float speed;
+
+    private final Listener listener;
+
+    private volatile boolean running = true;
+
+
+    public interface Listener {
+
+        void onInboundFrame(String frame);
+
+        void onReplayFinished(int frameCount, long startNanos, boolean completed);
+    }
+
+
+    public SessionReplayer(File file, float speed, Listener listener) {
+
+        super("SessionReplayer");
+
+        this.file = file;
+
+        this.speed = speed;
+
+        this.listener = listener;
+    }
+
+
+    public void cancel() {
+
+        running = false;
+
+        this.interrupt();
+    }
+
+
+    @Override
+    public void run() {
+
+        int frameCount = 0;
+
+        long start = System.nanoTime();
+
+        boolean completed = false;
+
+        InputStream inputStream = null;
+
+        try {
+
+            inputStream = new BufferedInputStream(new FileInputStream(file), 16 * 1024);
+
+            for (byte b : SessionRecorder.MAGIC)
+                if (inputStream.read() != b)
+                    throw new IOException("Not a session file: " + file);
+
+            if (inputStream.read() != SessionRecorder.VERSION)
+                throw new IOException("Unsupported session version: " + file);
+
+            long recordedMicros = 0;
+
+            byte[] buffer = new byte[1024];
+
+            while (running) {
+
+                int direction = inputStream.read();
+
+                if (direction < 0) {
+
+                    completed = true;
+
+                    break;
+                }
+
+                recordedMicros += readVarLong(inputStream);
+
+                int length = (int) readVarLong(inputStream);
+
+                if (length > buffer.length)
+                    buffer = new byte[Math.max(length, buffer.length * 2)];
+
+                readFully(inputStream, buffer, length);
+
+                if (direction != SessionRecorder.INBOUND)
+                    continue;
+
+                if (speed > MAX_SPEED) {
+
+                    long dueNanos = (long) (recordedMicros * 1000 / speed);
+
+                    long waitMs = (dueNanos - (System.nanoTime() - start)) / 1000000;
+
+                    if (waitMs > 0)
+                        Thread.sleep(waitMs);
+                }
+
+                listener.onInboundFrame(new String(buffer, 0, length, Charset.defaultCharset()));
+
+                frameCount++;
+            }
+
+        } catch (IOException e) {
+
+            e.printStackTrace();
+
+        } catch (InterruptedException e) {
+
+            running = false;
+
+        } finally {
+
+            try {
+
+                if (inputStream != null)
+                    inputStream.close();
+
+            } catch (IOException e) {
+
+                e.printStackTrace();
+
+            }
+        }
+
+        listener.onReplayFinished(frameCount, start, completed);
+    }
+
+
+    private static long readVarLong(InputStream inputStream) throws IOException {
+
+        long value = 0;
+
+        for (int shift = 0; shift < 64; shift += 7) {
+
+            int b = inputStream.read();
+
+            if (b < 0)
+                throw new EOFException();
+
+            value |= (long) (b & 0x7F) << shift;
+
+            if ((b & 0x80) == 0)
+                return value;
+        }
+
+        throw new IOException("Malformed varint");
+    }
+
+
+    private static void readFully(InputStream inputStream, byte[] buffer, int length) throws IOException {
+
+        int read = 0;
+
+        while (read < length) {
+
+            int count = inputStream.read(buffer, read, length - read);
+
+            if (count < 0)
+                throw new EOFException();
+
+            read += count;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.jack.mdpremote.Journal;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Choreographer;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+public class SessionState {
+
+    public static final int RECEIVED_LOG = 1;
+
+    public static final int SENT_LOG = 1 << 1;
+
+    public static final int IMAGE_LOG = 1 << 2;
+
+    public static final int CONNECTION_STATUS = 1 << 3;
+
+    public static final int ALL = RECEIVED_LOG | SENT_LOG | IMAGE_LOG | CONNECTION_STATUS;
+
+    private static SessionState instance;
+
+    private final CopyOnWriteArrayList<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    private final AtomicInteger pendingChanges = new AtomicInteger();
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private volatile String connectionStatus = "None";
+
+
+    public interface Listener {
+        void onSessionStateChanged(int changes);
+    }
+
+
+    public static synchronized SessionState getInstance() {
+
+        if (instance == null)
+            instance = new SessionState();
+
+        return instance;
+    }
+
+
+    private SessionState() {
+    }
+
+
+    public void subscribe(Listener listener) {
+
+        listeners.addIfAbsent(listener);
+
+        listener.onSessionStateChanged(ALL);
+    }
+
+
+    public void unsubscribe(Listener listener) {
+        listeners.remove(listener);
+    }
+
+
+    public String getConnectionStatus() {
+        return connectionStatus;
+    }
+
+
+    public void setConnectionStatus(String connectionStatus) {
+
+        if (connectionStatus.equals(this.connectionStatus))
+            return;
+
+        this.connectionStatus = connectionStatus;
+
+        this.markChanged(CONNECTION_STATUS);
+    }
+
+
+    public void markChanged(int changes) {
+
+        int previous;
+
+        do {
+            previous = pendingChanges.get();
+        } while (!pendingChanges.compareAndSet(previous, previous | changes));
+
+        if (previous == 0)
+            mainHandler.post(scheduleFrame);
+    }
+
+
+    private final Runnable scheduleFrame = new Runnable() {
+        @Override
+        public void run() {
+            Choreographer.getInstance().postFrameCallback(frameCallback);
+        }
+    };
+
+
+    private final Choreographer.FrameCallback frameCallback = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+
+            int changes = pendingChanges.getAndSet(0);
+
+            if (changes == 0)
+                return;
+
+            for (Listener listener : listeners)
+                listener.onSessionStateChanged(changes);
+        }
+    };
+}
@@ -36,13 +36,22 @@ import android.widget.ToggleButton;
 
 import com.jack.mdpremote.Bluetooth.BluetoothConnectionService;
 import com.jack.mdpremote.Bluetooth.BluetoothSettings;
+import com.jack.mdpremote.Bluetooth.SocketTransport;
+import com.jack.mdpremote.Bluetooth.Transport;
 import com.jack.mdpremote.GridMap.GridMap;
+import com.jack.mdpremote.GridMap.GridModel;
+import com.jack.mdpremote.GridMap.PathPlanner;
+import com.jack.mdpremote.Journal.CoverageRecorder;
+import com.jack.mdpremote.Journal.MessageJournal;
+import com.jack.mdpremote.Journal.SessionRecorder;
+import com.jack.mdpremote.Journal.SessionReplayer;
+import com.jack.mdpremote.Journal.SessionState;
+import com.jack.mdpremote.Protocol.FrameDecoder;
+import com.jack.mdpremote.Protocol.MapUpdate;
 import com.jack.mdpremote.SendReceive.SendReceive;
 
-import org.json.JSONArray;
-import org.json.JSONException;
-import org.json.JSONObject;
-
+import java.io.File;
+import java.io.IOException;
 import java.nio.charset.Charset;
 import java.util.UUID;
 
@@ -90,11 +99,27 @@ public class MainActivity extends AppCompatActivity implements AdapterView.OnIte
 
     SendReceive sendReceive;
 
+    FrameDecoder frameDecoder;
+
+    SessionReplayer sessionReplayer;
+
     TextView connStatusTextView;
 
     MenuItem bluetoothMenuItem, sendReceiveMenuItem;
 
-    TextView exploreTimeText, fastestTimeText;
+    TextView exploreTimeText, fastestTimeText, coverageText;
+
+    CoverageRecorder coverageRecorder;
+
+    private final StringBuilder coverageLine = new StringBuilder(32);
+
+    private int shownExplored = -1;
+
+    private int shownObstacles = -1;
+
+    private int appliedUpdates = 0;
+
+    private int appliedFrames = 0;
 
     ToggleButton exploreToggle, fastestToggle;
 
@@ -132,6 +157,10 @@ public class MainActivity extends AppCompatActivity implements AdapterView.OnIte
 
             exploreTimeText.setText(String.format("%02d:%02d", min, sec));
 
+            updateCoverage();
+
+            coverageRecorder.record(ms, gridMap.getExploredCount(), gridMap.getObstacleCount());
+
             timerHandler.postDelayed(this, 500);
         }
     };
@@ -154,17 +183,6 @@ public class MainActivity extends AppCompatActivity implements AdapterView.OnIte
         }
     };
 
-
-    Runnable timedMessage = new Runnable() {
-        @Override
-        public void run() {
-
-            rfMessage();
-
-            timerHandler.postDelayed(timedMessage, 500);
-        }
-    };
-
     @Override
     protected void onCreate(Bundle savedInstanceState) {
 
@@ -189,6 +207,10 @@ public class MainActivity extends AppCompatActivity implements AdapterView.OnIte
 
         exploreTimeText = findViewById(R.id.exploreTimeTextView);
 
+        coverageText = findViewById(R.id.coverageTextView);
+
+        coverageRecorder = new CoverageRecorder(this);
+
         exploreToggle = findViewById(R.id.exploreToggleBtn);
 
         expReset = findViewById(R.id.exploreResetImageBtn);
@@ -244,13 +266,9 @@ public class MainActivity extends AppCompatActivity implements AdapterView.OnIte
 
         MainActivity.context = getApplicationContext();
 
-        this.sharedPreferences();
+        MessageJournal.getInstance(this).clearAll();
 
-        editor.putString("sentText", "");
-
-        editor.putString("receivedText", "");
-
-        editor.putString("image", "");
+        this.sharedPreferences();
 
         editor.putString("direction", "None");
 
@@ -258,8 +276,12 @@ public class MainActivity extends AppCompatActivity implements AdapterView.OnIte
 
         editor.commit();
 
+        SessionState.getInstance().setConnectionStatus(connStatus);
+
 
-        timerHandler.post(timedMessage);
+        frameDecoder = new FrameDecoder(getApplicationContext(), mapUpdateListener);
+
+        gridMap.setFrameListener(mapFrameListener);
 
         LocalBroadcastManager.getInstance(this).registerReceiver(messageReceiver, new IntentFilter("incomingMessage"));
 
@@ -284,12 +306,16 @@ public class MainActivity extends AppCompatActivity implements AdapterView.OnIte
 
                     timerHandler.removeCallbacks(timerRunnableExplore);
 
+                    finishCoverageRun();
+
                 } else if (exploreToggleBtn.getText().equals("STOP")) {
 
                     sendMessage("B1:0");
 
                     expTimer = System.currentTimeMillis();
 
+                    coverageRecorder.start(expTimer);
+
                     timerHandler.postDelayed(timerRunnableExplore, 0);
 
                 }
@@ -310,6 +336,8 @@ public class MainActivity extends AppCompatActivity implements AdapterView.OnIte
 
                 timerHandler.removeCallbacks(timerRunnableExplore);
 
+                finishCoverageRun();
+
             }
         });
 
@@ -602,30 +630,19 @@ public class MainActivity extends AppCompatActivity implements AdapterView.OnIte
                         sensorHandler.removeCallbacks(sensorDelay);
                     }
 
-                    try {
-                        gridMap.setAutoUpdate(true);
+                    gridMap.setAutoUpdate(true);
 
-                        gridMap.toggleCheckedBtn("None");
+                    gridMap.toggleCheckedBtn("None");
 
-                        manualUpdateBtn.setEnabled(false);
-
-                    } catch (JSONException e) {
-
-                        e.printStackTrace();
-
-                    }
+                    manualUpdateBtn.setEnabled(false);
 
                 } else if (manualAutoToggleBtn.getText().equals("MANUAL")) {
 
 
-                    try {
-                        gridMap.setAutoUpdate(false);
+                    gridMap.setAutoUpdate(false);
 
-                        gridMap.toggleCheckedBtn("None");
-                        manualUpdateBtn.setEnabled(true);
-                    } catch (JSONException e) {
-                        e.printStackTrace();
-                    }
+                    gridMap.toggleCheckedBtn("None");
+                    manualUpdateBtn.setEnabled(true);
 
                 }
 
@@ -636,11 +653,7 @@ public class MainActivity extends AppCompatActivity implements AdapterView.OnIte
         manualUpdateBtn.setOnClickListener(new View.OnClickListener() {
             @Override
             public void onClick(View view) {
-                try {
-                    gridMap.updateMapInformation();
-                } catch (JSONException e) {
-
-                }
+                gridMap.updateMapInformation();
 
             }
         });
@@ -684,8 +697,40 @@ public class MainActivity extends AppCompatActivity implements AdapterView.OnIte
                 break;
             case R.id.sendReceiveMenuItem:
                 intent = new Intent(MainActivity.this, SendReceive.class);
-                editor.putString("receivedText", receivedMessageText.getText().toString());
                 break;
+            case R.id.simulatorMenuItem:
+                this.connectSimulator();
+                return true;
+            case R.id.recordSessionMenuItem:
+                SessionRecorder sessionRecorder = SessionRecorder.getInstance(this);
+                if (sessionRecorder.isRecording()) {
+                    sessionRecorder.stop();
+                    item.setTitle("Record Session");
+                } else {
+                    sessionRecorder.start();
+                    item.setTitle("Stop Recording");
+                }
+                return true;
+            case R.id.replayNormalMenuItem:
+                this.replayLatestSession(1);
+                return true;
+            case R.id.replayFastMenuItem:
+                this.replayLatestSession(4);
+                return true;
+            case R.id.replayMaxMenuItem:
+                this.replayLatestSession(SessionReplayer.MAX_SPEED);
+                return true;
+            case R.id.fastestPathMenuItem:
+                PathPlanner.Path path = gridMap.planFastestPath();
+                if (path == null)
+                    Toast.makeText(MainActivity.this, "No fastest path found", Toast.LENGTH_SHORT).show();
+                else
+                    Toast.makeText(MainActivity.this, "Fastest path: " + path.getCommands().size() + " moves, cost " + path.getCost(), Toast.LENGTH_SHORT).show();
+                return true;
+            case R.id.metricsOverlayMenuItem:
+                item.setChecked(!item.isChecked());
+                gridMap.setMetricsOverlay(item.isChecked());
+                return true;
 
             default:
                 return false;
@@ -701,6 +746,111 @@ public class MainActivity extends AppCompatActivity implements AdapterView.OnIte
     }
 
 
+    private void connectSimulator() {
+
+        final String address = sharedPreferences.getString("simulatorAddress", "10.0.2.2:5000");
+
+        final int separator = address.lastIndexOf(':');
+
+        if (separator < 0) {
+
+            Toast.makeText(MainActivity.this, "Invalid simulator address " + address, Toast.LENGTH_SHORT).show();
+
+            return;
+        }
+
+        new Thread(new Runnable() {
+            @Override
+            public void run() {
+
+                try {
+
+                    final Transport transport = SocketTransport.connect(address.substring(0, separator), Integer.parseInt(address.substring(separator + 1)), 3000);
+
+                    runOnUiThread(new Runnable() {
+                        @Override
+                        public void run() {
+
+                            if (BluetoothConnection == null)
+                                BluetoothConnection = new BluetoothConnectionService(MainActivity.this);
+
+                            BluetoothConnection.startTransport(transport);
+
+                        }
+                    });
+
+                } catch (IOException | NumberFormatException e) {
+
+                    runOnUiThread(new Runnable() {
+                        @Override
+                        public void run() {
+
+                            Toast.makeText(MainActivity.this, "Simulator not reachable at " + address, Toast.LENGTH_SHORT).show();
+
+                        }
+                    });
+                }
+            }
+        }, "SimulatorConnect").start();
+    }
+
+
+    private void replayLatestSession(float speed) {
+
+        File session = SessionRecorder.getInstance(this).getLatestSession();
+
+        if (session == null) {
+
+            Toast.makeText(MainActivity.this, "No recorded session", Toast.LENGTH_SHORT).show();
+
+            return;
+        }
+
+        if (sessionReplayer != null)
+            sessionReplayer.cancel();
+
+        appliedUpdates = 0;
+
+        appliedFrames = 0;
+
+        sessionReplayer = new SessionReplayer(session, speed, new SessionReplayer.Listener() {
+            @Override
+            public void onInboundFrame(String frame) {
+                frameDecoder.decode(frame);
+            }
+
+            @Override
+            public void onReplayFinished(final int frameCount, final long startNanos, final boolean completed) {
+
+                frameDecoder.runAfterDecoded(new Runnable() {
+                    @Override
+                    public void run() {
+
+                        gridMap.runAfterPendingFrame(new Runnable() {
+                            @Override
+                            public void run() {
+                                showReplayResult(frameCount, startNanos, completed);
+                            }
+                        });
+                    }
+                });
+            }
+        });
+
+        sessionReplayer.start();
+    }
+
+
+    private void showReplayResult(int frameCount, long startNanos, boolean completed) {
+
+        long elapsedMs = (System.nanoTime() - startNanos) / 1000000;
+
+        String rate = elapsedMs > 0 ? ", " + (frameCount * 1000L / elapsedMs) + " frames/s" : "";
+
+        Toast.makeText(MainActivity.this, (completed ? "Replayed " : "Replay stopped after ") + frameCount + " frames, applied " + appliedUpdates + " updates in " + appliedFrames + " map frames, " + elapsedMs + " ms" + rate, Toast.LENGTH_LONG).show();
+    }
+
+
     @Override
     public void onItemSelected(AdapterView<?> arg0, View arg1, int position, long id) {
         editor.putString("direction", direction[position]);
@@ -723,14 +873,23 @@ public class MainActivity extends AppCompatActivity implements AdapterView.OnIte
     }
 
 
-    public void rfMessage() {
+    SessionState.Listener sessionStateListener = new SessionState.Listener() {
+        @Override
+        public void onSessionStateChanged(int changes) {
 
-        receivedMessageText.setText(sharedPreferences.getString("receivedText", ""));
+            MessageJournal messageJournal = MessageJournal.getInstance(MainActivity.this);
 
-        sentMessageText.setText(sharedPreferences.getString("image", ""));
-        connStatusTextView.setText(sharedPreferences.getString("connStatus", ""));
+            if ((changes & SessionState.RECEIVED_LOG) != 0)
+                receivedMessageText.setText(messageJournal.getText(MessageJournal.Channel.RECEIVED));
 
-    }
+            if ((changes & SessionState.IMAGE_LOG) != 0)
+                sentMessageText.setText(messageJournal.getText(MessageJournal.Channel.IMAGE));
+
+            if ((changes & SessionState.CONNECTION_STATUS) != 0)
+                connStatusTextView.setText(SessionState.getInstance().getConnectionStatus());
+
+        }
+    };
 
 
     public void rfFacing(String direction) {
@@ -762,28 +921,22 @@ public class MainActivity extends AppCompatActivity implements AdapterView.OnIte
 
     public static void setSPWP(String type, String x, String y) {
 
-        sharedPreferences();
-
         String message;
         message = type + "" + x + "" + y;
 
-        editor.putString("sentText", sharedPreferences.getString("sentText", "") + "\n " + message);
-        editor.commit();
+        MessageJournal.getInstance(context).append(MessageJournal.Channel.SENT, message);
         sendMessage("B2:" + message);
 
     }
 
     public static void sendMessage(String message) {
 
-        sharedPreferences();
-
         if (BluetoothConnectionService.BluetoothConnectionStatus) {
             byte[] bytes = message.getBytes(Charset.defaultCharset());
             BluetoothConnectionService.write(bytes);
         }
 
-        editor.putString("sentText", sharedPreferences.getString("sentText", "") + "\n " + message);
-        editor.commit();
+        MessageJournal.getInstance(context).append(MessageJournal.Channel.SENT, message);
 
     }
 
@@ -803,7 +956,7 @@ public class MainActivity extends AppCompatActivity implements AdapterView.OnIte
         @Override
         public void onReceive(Context context, Intent intent) {
 
-            BluetoothDevice mDevice = intent.getParcelableExtra("Device");
+            String deviceName = intent.getStringExtra("DeviceName");
 
             String status = intent.getStringExtra("Status");
 
@@ -821,25 +974,26 @@ public class MainActivity extends AppCompatActivity implements AdapterView.OnIte
 
                 }
 
-                Toast.makeText(MainActivity.this, "Device now connected to " + mDevice.getName(), Toast.LENGTH_LONG).show();
+                Toast.makeText(MainActivity.this, "Device now connected to " + deviceName, Toast.LENGTH_LONG).show();
 
-                editor.putString("connStatus", mDevice.getName());
+                editor.putString("connStatus", deviceName);
 
-                connStatusTextView.setText(mDevice.getName());
+                SessionState.getInstance().setConnectionStatus(deviceName);
 
             } else if (status.equals("disconnected")) {
 
-                Toast.makeText(MainActivity.this, "Disconnected from " + mDevice.getName(), Toast.LENGTH_LONG).show();
+                Toast.makeText(MainActivity.this, "Disconnected from " + deviceName, Toast.LENGTH_LONG).show();
 
-                BluetoothConnection = new BluetoothConnectionService(MainActivity.this);
-                BluetoothConnection.connectionLost(BTDevice);
+                editor.putString("connStatus", "None");
+                SessionState.getInstance().setConnectionStatus("None");
 
+                if (intent.getBooleanExtra("Rfcomm", false)) {
 
-                editor.putString("connStatus", "None");
-                TextView connStatusTextView = findViewById(R.id.connStatusTextView);
-                connStatusTextView.setText("None");
+                    BluetoothConnection = new BluetoothConnectionService(MainActivity.this);
+                    BluetoothConnection.connectionLost(BTDevice);
 
-                progressDialog.show();
+                    progressDialog.show();
+                }
             }
             editor.commit();
         }
@@ -850,93 +1004,64 @@ public class MainActivity extends AppCompatActivity implements AdapterView.OnIte
         @Override
         public void onReceive(Context context, Intent intent) {
 
-            String payload = intent.getStringExtra("receivedMessage");
-
-            try {
+            frameDecoder.decode(intent.getStringExtra("receivedMessage"));
 
+        }
+    };
 
-                if (payload.length() == 158 && payload.substring(0, 3).equals("B4:")) {
-
-                    String robotPositionX = payload.substring(3, 5);
-                    String robotPositionY = payload.substring(5, 7);
-                    String robotDirection = payload.substring(7, 8);
-                    String mapInfo = payload.substring(8);
-
-                    JSONObject payloadObject = new JSONObject();
-                    payloadObject.put("explored", mapInfo);
-                    payloadObject.put("robotX", robotPositionX);
-                    payloadObject.put("robotY", robotPositionY);
-                    payloadObject.put("robotDirection", robotDirection);
-
-                    JSONArray payloadArray = new JSONArray();
-                    payloadArray.put(payloadObject);
 
-                    JSONObject payloadBody = new JSONObject();
-                    payloadBody.put("map", payloadArray);
+    FrameDecoder.Listener mapUpdateListener = new FrameDecoder.Listener() {
+        @Override
+        public void onMapUpdate(MapUpdate update) {
 
-                    payload = String.valueOf(payloadBody);
+            gridMap.setReceivedPayload(update);
 
-                    sharedPreferences();
-                    String receivedText = sharedPreferences.getString("receivedText", "") + "\n " + payload;
-                    editor.putString("receivedText", receivedText);
-                    editor.commit();
+            if (gridMap.getAutoUpdate())
+                gridMap.updateMapInformation();
 
+        }
+    };
 
-                } else if (payload.substring(0, 3).equals("B5:")) {
-                    String MDF;
-                    int indexOfImage = payload.indexOf("|");
-                    if (indexOfImage != -1) {
-                        MDF = payload.substring(3, indexOfImage);
-                        String imageBody = payload.substring(indexOfImage + 1);
 
-                        JSONArray payloadArray = new JSONArray();
-                        JSONObject payloadObject = new JSONObject();
+    GridMap.FrameListener mapFrameListener = new GridMap.FrameListener() {
+        @Override
+        public void onFrameApplied(int coalescedUpdates) {
 
-                        payloadObject.put("imageString", imageBody);
-                        payloadArray.put(payloadObject);
-                        JSONObject payloadBody = new JSONObject();
-                        payloadBody.put("image", payloadArray);
+            appliedUpdates += coalescedUpdates;
 
-                        payload = String.valueOf(payloadBody);
-                    } else {
-                        MDF = payload.substring(3);
-                    }
+            appliedFrames++;
 
+            updateCoverage();
+        }
+    };
 
-                    sharedPreferences();
-                    String receivedText = sharedPreferences.getString("receivedText", "") + "\n " + MDF;
-                    editor.putString("receivedText", receivedText);
-                    editor.commit();
 
-                }
-            } catch (JSONException e) {
-                e.printStackTrace();
-            }
+    private void updateCoverage() {
 
-            if (gridMap.getAutoUpdate()) {
+        int explored = gridMap.getExploredCount();
 
-                try {
+        int obstacles = gridMap.getObstacleCount();
 
-                    gridMap.setReceivedPayload(new JSONObject(payload));
+        if (explored == shownExplored && obstacles == shownObstacles)
+            return;
 
-                    gridMap.updateMapInformation();
+        shownExplored = explored;
 
-                } catch (JSONException e) {
+        shownObstacles = obstacles;
 
-                }
-            } else {
+        coverageLine.setLength(0);
 
-                try {
-                    gridMap.setReceivedPayload(new JSONObject(payload));
+        coverageLine.append(explored).append('/').append(GridModel.CELL_COUNT).append(" (").append(explored * 100 / GridModel.CELL_COUNT).append("%) obs ").append(obstacles);
 
-                } catch (JSONException e) {
+        coverageText.setText(coverageLine);
+    }
 
-                }
-            }
 
+    private void finishCoverageRun() {
 
-        }
-    };
+        if (coverageRecorder.isRecording())
+            coverageRecorder.finish(System.currentTimeMillis() - expTimer, gridMap.getExploredCount(), gridMap.getObstacleCount(), GridModel.CELL_COUNT);
+    }
 
     @Override
     protected void onActivityResult(int requestCode, int resultCode, Intent data) {
@@ -1037,6 +1162,11 @@ public class MainActivity extends AppCompatActivity implements AdapterView.OnIte
             e.printStackTrace();
 
         }
+
+        if (sessionReplayer != null)
+            sessionReplayer.cancel();
+
+        frameDecoder.quit();
     }
 
 
@@ -1054,6 +1184,8 @@ public class MainActivity extends AppCompatActivity implements AdapterView.OnIte
             e.printStackTrace();
 
         }
+
+        SessionState.getInstance().unsubscribe(sessionStateListener);
     }
 
     @Override
@@ -1061,6 +1193,8 @@ public class MainActivity extends AppCompatActivity implements AdapterView.OnIte
 
         super.onResume();
 
+        SessionState.getInstance().subscribe(sessionStateListener);
+
         try {
 
             IntentFilter filter2 = new IntentFilter("ConnectionStatus");
@@ -0,0 +1,115 @@
+package com.jack.mdpremote.Protocol;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.Process;
+import android.os.Trace;
+
+import com.jack.mdpremote.Journal.MessageJournal;
+import com.jack.mdpremote.Metrics.HotPathMetrics;
+
+
+public class FrameDecoder {
+
+    private final MessageJournal messageJournal;
+
+    private final HandlerThread decodeThread;
+
+    private final Handler decodeHandler;
+
+    private final Handler mainHandler;
+
+    private final Listener listener;
+
+
+    public interface Listener {
+        void onMapUpdate(MapUpdate update);
+    }
+
+
+    public FrameDecoder(Context context, Listener listener) {
+
+        this.messageJournal = MessageJournal.getInstance(context);
+
+        this.listener = listener;
+
+        decodeThread = new HandlerThread("FrameDecoder", Process.THREAD_PRIORITY_BACKGROUND);
+
+        decodeThread.start();
+
+        decodeHandler = new Handler(decodeThread.getLooper());
+
+        mainHandler = new Handler(Looper.getMainLooper());
+
+    }
+
+
+    public void decode(final String frame) {
+
+        if (frame == null)
+            return;
+
+        HotPathMetrics.increment(HotPathMetrics.DECODE_QUEUE_DEPTH);
+
+        decodeHandler.post(new Runnable() {
+            @Override
+            public void run() {
+
+                HotPathMetrics.decrement(HotPathMetrics.DECODE_QUEUE_DEPTH);
+
+                long start = System.nanoTime();
+
+                Trace.beginSection("decode");
+
+                final MapUpdate update = FrameParser.parse(frame);
+
+                Trace.endSection();
+
+                HotPathMetrics.recordNanos(HotPathMetrics.DECODE, System.nanoTime() - start);
+
+                if (update.getLogText() != null)
+                    messageJournal.append(MessageJournal.Channel.RECEIVED, update.getLogText());
+
+                if (!update.hasFrames()) {
+
+                    if (update.getLogText() == null)
+                        HotPathMetrics.increment(HotPathMetrics.FRAMES_DROPPED);
+
+                    return;
+                }
+
+                HotPathMetrics.increment(HotPathMetrics.FRAMES_DECODED);
+
+                HotPathMetrics.increment(HotPathMetrics.APPLY_QUEUE_DEPTH);
+
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+
+                        HotPathMetrics.decrement(HotPathMetrics.APPLY_QUEUE_DEPTH);
+
+                        listener.onMapUpdate(update);
+                    }
+                });
+            }
+        });
+    }
+
+
+    public void runAfterDecoded(final Runnable runnable) {
+
+        decodeHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                mainHandler.post(runnable);
+            }
+        });
+    }
+
+
+    public void quit() {
+        decodeThread.quitSafely();
+    }
+}
@@ -3,7 +3,6 @@ package com.jack.mdpremote.SendReceive;
 import android.app.Activity;
 import android.app.FragmentManager;
 import android.app.ProgressDialog;
-import android.bluetooth.BluetoothDevice;
 import android.content.BroadcastReceiver;
 import android.content.Context;
 import android.content.DialogInterface;
@@ -23,6 +22,8 @@ import android.widget.TextView;
 import android.widget.Toast;
 
 import com.jack.mdpremote.Bluetooth.BluetoothConnectionService;
+import com.jack.mdpremote.Journal.MessageJournal;
+import com.jack.mdpremote.Journal.SessionState;
 import com.jack.mdpremote.R;
 
 import java.nio.charset.Charset;
@@ -41,6 +42,8 @@ public class SendReceive extends AppCompatActivity {
 
     SharedPreferences.Editor editor;
 
+    MessageJournal messageJournal;
+
     ProgressDialog progressDialog;
 
     BluetoothConnectionService BTConnection;
@@ -77,13 +80,11 @@ public class SendReceive extends AppCompatActivity {
 
         sharedPreferences = getApplicationContext().getSharedPreferences("Shared Preferences", Context.MODE_PRIVATE);
 
-        if (sharedPreferences.contains("receivedText"))
-
-            receivedText = sharedPreferences.getString("receivedText", "");
+        messageJournal = MessageJournal.getInstance(this);
 
-        if (sharedPreferences.contains("sentText"))
+        receivedText = messageJournal.getText(MessageJournal.Channel.RECEIVED);
 
-            sentText = sharedPreferences.getString("sentText", "");
+        sentText = messageJournal.getText(MessageJournal.Channel.SENT);
 
         receivedTextView = findViewById(R.id.messageBoxReceivedTextView);
 
@@ -109,7 +110,7 @@ public class SendReceive extends AppCompatActivity {
 
         SentTextView.setText(sentText);
 
-        LocalBroadcastManager.getInstance(this).registerReceiver(messageReceiver, new IntentFilter("incomingMessage"));
+        SessionState.getInstance().subscribe(sessionStateListener);
 
         IntentFilter filter2 = new IntentFilter("ConnectionStatus");
 
@@ -174,15 +175,9 @@ public class SendReceive extends AppCompatActivity {
 
                 sentText = " " + editTextBox.getText().toString();
 
-                sharedPreferences = getSharedPreferences("Shared Preferences", Context.MODE_PRIVATE);
-
-                SharedPreferences.Editor editor = sharedPreferences.edit();
+                messageJournal.append(MessageJournal.Channel.SENT, sentText);
 
-                editor.putString("sentText", sentText);
-
-                editor.apply();
-
-                SentTextView.setText(sharedPreferences.getString("sentText", ""));
+                SentTextView.setText(messageJournal.getText(MessageJournal.Channel.SENT));
 
                 editTextBox.setText(" ");
 
@@ -236,13 +231,12 @@ public class SendReceive extends AppCompatActivity {
 
     }
 
-    BroadcastReceiver messageReceiver = new BroadcastReceiver() {
+    SessionState.Listener sessionStateListener = new SessionState.Listener() {
         @Override
-        public void onReceive(Context context, Intent intent) {
+        public void onSessionStateChanged(int changes) {
 
-            sharedPreferences = getSharedPreferences("Shared Preferences", Context.MODE_PRIVATE);
-
-            receivedTextView.setText(sharedPreferences.getString("receivedText", ""));
+            if ((changes & SessionState.RECEIVED_LOG) != 0)
+                receivedTextView.setText(messageJournal.getText(MessageJournal.Channel.RECEIVED));
 
         }
     };
@@ -266,7 +260,7 @@ public class SendReceive extends AppCompatActivity {
         @Override
         public void onReceive(Context context, Intent intent) {
 
-            BluetoothDevice mDevice = intent.getParcelableExtra("Device");
+            String deviceName = intent.getStringExtra("DeviceName");
 
             String status = intent.getStringExtra("Status");
 
@@ -288,14 +282,16 @@ public class SendReceive extends AppCompatActivity {
 
                 }
 
-                Toast.makeText(SendReceive.this, "Device now connected to " + mDevice.getName(), Toast.LENGTH_LONG).show();
+                Toast.makeText(SendReceive.this, "Device now connected to " + deviceName, Toast.LENGTH_LONG).show();
+
+                editor.putString("connStatus", "Connected to " + deviceName);
 
-                editor.putString("connStatus", "Connected to " + mDevice.getName());
+                SessionState.getInstance().setConnectionStatus(deviceName);
 
-                connStatusTextView.setText(mDevice.getName());
+                connStatusTextView.setText(deviceName);
             } else if (status.equals("disconnected")) {
 
-                Toast.makeText(SendReceive.this, "Disconnected from " + mDevice.getName(), Toast.LENGTH_LONG).show();
+                Toast.makeText(SendReceive.this, "Disconnected from " + deviceName, Toast.LENGTH_LONG).show();
 
                 BTConnection = new BluetoothConnectionService(SendReceive.this);
 
@@ -303,6 +299,8 @@ public class SendReceive extends AppCompatActivity {
 
                 editor.putString("connStatus", "None");
 
+                SessionState.getInstance().setConnectionStatus("None");
+
                 connStatusTextView.setText("None");
 
 
@@ -321,14 +319,14 @@ public class SendReceive extends AppCompatActivity {
 
         try {
 
-            LocalBroadcastManager.getInstance(this).unregisterReceiver(messageReceiver);
-
             LocalBroadcastManager.getInstance(this).unregisterReceiver(BCReceiver);
 
         } catch (IllegalArgumentException e) {
 
             e.printStackTrace();
         }
+
+        SessionState.getInstance().unsubscribe(sessionStateListener);
     }
 
 
@@ -0,0 +1,125 @@
+package com.jack.mdpremote.Journal;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+
+public class RollingLogWriterTest {
+
+    private static final long MAX_LENGTH = 1024;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+
+    private static List<String> lines(File file) throws IOException {
+        return Files.readAllLines(file.toPath(), Charset.forName("UTF-8"));
+    }
+
+
+    @Test
+    public void rollsOnceTheCapIsReached() throws IOException {
+
+        File file = new File(folder.getRoot(), "journal.log");
+
+        File rolled = new File(file.getPath() + RollingLogWriter.ROLLED_SUFFIX);
+
+        RollingLogWriter writer = new RollingLogWriter(file, MAX_LENGTH);
+
+        int written = 0;
+
+        while (!rolled.exists()) {
+
+            writer.write(1000000 + written, "RECEIVED", "line " + written);
+
+            written++;
+
+            assertTrue(writer.getLength() <= MAX_LENGTH);
+        }
+
+        for (int i = 0; i < 200; i++) {
+
+            writer.write(1000000 + written, "RECEIVED", "line " + written);
+
+            written++;
+        }
+
+        writer.sync();
+
+        assertTrue(file.length() <= MAX_LENGTH);
+
+        assertTrue(rolled.length() <= MAX_LENGTH);
+
+        assertEquals(writer.getLength(), file.length());
+
+        List<String> current = lines(file);
+
+        List<String> previous = lines(rolled);
+
+        assertEquals((1000000 + written - 1) + " RECEIVED line " + (written - 1), current.get(current.size() - 1));
+
+        String firstCurrent = current.get(0);
+
+        String lastPrevious = previous.get(previous.size() - 1);
+
+        assertEquals(Integer.parseInt(lastPrevious.substring(lastPrevious.lastIndexOf(' ') + 1)) + 1, Integer.parseInt(firstCurrent.substring(firstCurrent.lastIndexOf(' ') + 1)));
+
+        writer.close();
+    }
+
+
+    @Test
+    public void rollsAnOversizedFileLeftFromAnEarlierRun() throws IOException {
+
+        File file = new File(folder.getRoot(), "journal.log");
+
+        FileOutputStream outputStream = new FileOutputStream(file);
+
+        outputStream.write(new byte[(int) MAX_LENGTH]);
+
+        outputStream.close();
+
+        RollingLogWriter writer = new RollingLogWriter(file, MAX_LENGTH);
+
+        writer.write(1, "SENT", "after restart");
+
+        writer.sync();
+
+        assertEquals(MAX_LENGTH, new File(file.getPath() + RollingLogWriter.ROLLED_SUFFIX).length());
+
+        assertEquals(1, lines(file).size());
+
+        writer.close();
+    }
+
+
+    @Test
+    public void countsEncodedBytes() throws IOException {
+
+        File file = new File(folder.getRoot(), "journal.log");
+
+        RollingLogWriter writer = new RollingLogWriter(file, MAX_LENGTH);
+
+        writer.write(42, "IMAGE", "caf\u00e9 \u20ac \ud83d\ude00");
+
+        writer.sync();
+
+        assertEquals(file.length(), writer.getLength());
+
+        assertFalse(new File(file.getPath() + RollingLogWriter.ROLLED_SUFFIX).exists());
+
+        writer.close();
+    }
+}
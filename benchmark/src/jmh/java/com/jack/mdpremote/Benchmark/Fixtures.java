@@ -0,0 +1,87 @@
+package com.jack.mdpremote.Benchmark;
+
+import com.jack.mdpremote.GridMap.GridModel;
+import com.jack.mdpremote.GridMap.MapDescriptor;
+import com.jack.mdpremote.Protocol.FrameParser;
+import com.jack.mdpremote.Protocol.MapUpdate;
+import com.jack.mdpremote.Simulator.Arena;
+import com.jack.mdpremote.Simulator.SimulatedRobot;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+
+final class Fixtures {
+
+    static final int FRAME_COUNT = 256;
+
+
+    private Fixtures() {
+    }
+
+
+    static Arena arena() {
+
+        try (InputStream inputStream = Arena.class.getResourceAsStream("/arena.txt")) {
+
+            return Arena.load(inputStream);
+
+        } catch (IOException e) {
+
+            throw new UncheckedIOException(e);
+
+        }
+    }
+
+
+    static String[] mapFrames(Arena arena) {
+
+        SimulatedRobot robot = new SimulatedRobot(arena);
+
+        String[] frames = new String[FRAME_COUNT];
+
+        for (int i = 0; i < frames.length; i++) {
+
+            frames[i] = robot.mapFrame();
+
+            if (!robot.step())
+                robot.reset();
+        }
+
+        return frames;
+    }
+
+
+    static SimulatedRobot exploredRobot(Arena arena) {
+
+        SimulatedRobot robot = new SimulatedRobot(arena);
+
+        while (robot.step())
+            robot.takeNewImage();
+
+        return robot;
+    }
+
+
+    static String imageString(SimulatedRobot robot) {
+
+        String frame = robot.imageFrame();
+
+        return frame.substring(frame.indexOf('|') + 1);
+    }
+
+
+    static GridModel exploredModel(SimulatedRobot robot) {
+
+        GridModel gridModel = new GridModel();
+
+        MapUpdate update = FrameParser.parse(robot.mapFrame());
+
+        byte[] cellStates = new byte[MapDescriptor.CELL_COUNT];
+
+        gridModel.applyDescriptor(cellStates, MapDescriptor.decodeExplored(update.getMapFrame().getExplored(), cellStates));
+
+        return gridModel;
+    }
+}
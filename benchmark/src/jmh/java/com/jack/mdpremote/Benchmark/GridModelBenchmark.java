@@ -0,0 +1,89 @@
+package com.jack.mdpremote.Benchmark;
+
+import com.jack.mdpremote.GridMap.GridModel;
+import com.jack.mdpremote.GridMap.PathPlanner;
+import com.jack.mdpremote.Simulator.Arena;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class GridModelBenchmark {
+
+    private GridModel gridModel;
+
+    private PathPlanner pathPlanner;
+
+    private int toggledCell;
+
+
+    @Setup
+    public void setUp() {
+
+        Arena arena = Fixtures.arena();
+
+        gridModel = new GridModel();
+
+        for (int x = 0; x < Arena.COLUMN; x++)
+            for (int y = 0; y < Arena.ROW; y++)
+                if (arena.isObstacle(x, y))
+                    gridModel.setOccupied(x + 1, GridModel.ROW - 1 - y, true);
+
+        pathPlanner = new PathPlanner();
+
+        for (int i = 0; i < GridModel.CELL_COUNT; i++)
+            if (!gridModel.isOccupied(i))
+                toggledCell = i;
+    }
+
+
+    @Benchmark
+    public int obstacleLookup() {
+
+        int count = 0;
+
+        for (int column = 1; column <= GridModel.COLUMN; column++)
+            for (int row = 0; row < GridModel.ROW; row++)
+                if (gridModel.isOccupied(column, row))
+                    count++;
+
+        return count;
+    }
+
+
+    @Benchmark
+    public int obstacleIteration() {
+
+        int count = 0;
+
+        for (int i = gridModel.nextOccupied(0); i >= 0; i = gridModel.nextOccupied(i + 1))
+            count++;
+
+        return count;
+    }
+
+
+    @Benchmark
+    public boolean toggleObstacle() {
+
+        gridModel.setOccupied(toggledCell, true);
+
+        return gridModel.setOccupied(toggledCell, false);
+    }
+
+
+    @Benchmark
+    public PathPlanner.Path planFastestPath() {
+        return pathPlanner.plan(gridModel, 2, GridModel.ROW - 2, PathPlanner.UP, -1, -1, GridModel.COLUMN - 1, 1);
+    }
+}
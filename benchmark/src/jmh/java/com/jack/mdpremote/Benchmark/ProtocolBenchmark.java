@@ -0,0 +1,185 @@
+package com.jack.mdpremote.Benchmark;
+
+import com.jack.mdpremote.Bluetooth.FrameAssembler;
+import com.jack.mdpremote.GridMap.GridModel;
+import com.jack.mdpremote.GridMap.LegacyCodec;
+import com.jack.mdpremote.GridMap.MapDescriptor;
+import com.jack.mdpremote.Protocol.FrameParser;
+import com.jack.mdpremote.Protocol.ImageRecordCursor;
+import com.jack.mdpremote.Protocol.MapUpdate;
+import com.jack.mdpremote.Simulator.Arena;
+import com.jack.mdpremote.Simulator.SimulatedRobot;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.charset.Charset;
+import java.util.concurrent.TimeUnit;
+
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ProtocolBenchmark {
+
+    private String[] mapFrames;
+
+    private byte[][] mapFrameBytes;
+
+    private String[] explored;
+
+    private byte[] cellStates;
+
+    private GridModel gridModel;
+
+    private GridModel exploredModel;
+
+    private char[] exportBuffer;
+
+    private String imageString;
+
+    private int[] images;
+
+    private ImageRecordCursor imageRecordCursor;
+
+    private FrameAssembler frameAssembler;
+
+    private String assembled;
+
+    private int next;
+
+
+    @Setup
+    public void setUp() {
+
+        Arena arena = Fixtures.arena();
+
+        mapFrames = Fixtures.mapFrames(arena);
+
+        mapFrameBytes = new byte[mapFrames.length][];
+
+        explored = new String[mapFrames.length];
+
+        for (int i = 0; i < mapFrames.length; i++) {
+
+            mapFrameBytes[i] = (mapFrames[i] + "\n").getBytes(Charset.defaultCharset());
+
+            explored[i] = FrameParser.parse(mapFrames[i]).getMapFrame().getExplored();
+        }
+
+        cellStates = new byte[MapDescriptor.CELL_COUNT];
+
+        gridModel = new GridModel();
+
+        SimulatedRobot robot = Fixtures.exploredRobot(arena);
+
+        exploredModel = Fixtures.exploredModel(robot);
+
+        exportBuffer = new char[MapDescriptor.EXPORT_HEX_LENGTH];
+
+        imageString = Fixtures.imageString(robot);
+
+        images = new int[imageString.length() / 5 + 1];
+
+        imageRecordCursor = new ImageRecordCursor();
+
+        frameAssembler = new FrameAssembler(new FrameAssembler.Listener() {
+            @Override
+            public void onFrame(String frame) {
+                assembled = frame;
+            }
+        });
+    }
+
+
+    private int nextFrame() {
+        return next = (next + 1) & (Fixtures.FRAME_COUNT - 1);
+    }
+
+
+    @Benchmark
+    public String assembleMapFrame() {
+
+        byte[] bytes = mapFrameBytes[this.nextFrame()];
+
+        frameAssembler.append(bytes, 0, bytes.length);
+
+        return assembled;
+    }
+
+
+    @Benchmark
+    public MapUpdate parseMapFrame() {
+        return FrameParser.parse(mapFrames[this.nextFrame()]);
+    }
+
+
+    @Benchmark
+    public int decodeExplored() {
+        return MapDescriptor.decodeExplored(explored[this.nextFrame()], cellStates);
+    }
+
+
+    @Benchmark
+    public int decodeExploredBigInteger() {
+        return LegacyCodec.decodeExplored(explored[this.nextFrame()], cellStates);
+    }
+
+
+    @Benchmark
+    public GridModel decodeAndApplyExplored() {
+
+        gridModel.applyDescriptor(cellStates, MapDescriptor.decodeExplored(explored[this.nextFrame()], cellStates));
+
+        return gridModel;
+    }
+
+
+    @Benchmark
+    public String encodeExploredBigInteger() {
+        return LegacyCodec.encodeExplored(exploredModel);
+    }
+
+
+    @Benchmark
+    public String encodeObstacleBigInteger() {
+        return LegacyCodec.encodeObstacle(exploredModel);
+    }
+
+
+    @Benchmark
+    public int encodeExploredStreaming() {
+        return MapDescriptor.encodeExplored(exploredModel, exportBuffer);
+    }
+
+
+    @Benchmark
+    public int encodeObstacleStreaming() {
+        return MapDescriptor.encodeObstacle(exploredModel, exportBuffer);
+    }
+
+
+    @Benchmark
+    public int parseImageStringSubstring() {
+        return LegacyCodec.parseImageString(imageString, images);
+    }
+
+
+    @Benchmark
+    public int parseImageStringCursor() {
+
+        int count = 0;
+
+        ImageRecordCursor cursor = imageRecordCursor.reset(imageString);
+
+        while (cursor.next())
+            images[count++] = (cursor.getX() << 16) | (cursor.getY() << 8) | cursor.getType();
+
+        return count;
+    }
+}
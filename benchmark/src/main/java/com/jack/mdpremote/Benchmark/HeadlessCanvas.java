@@ -0,0 +1,81 @@
+package com.jack.mdpremote.Benchmark;
+
+import com.jack.mdpremote.GridMap.GridModel;
+
+
+public class HeadlessCanvas {
+
+    private static final int[] CELL_TYPE_COLORS = new int[]{
+            0xFF888888,
+            0xFFFFFFFF,
+            0xFF000000,
+            0xFF00FFFF,
+            0xFF00FF00,
+            0xFF00FFFF,
+            0xFFFFFF00,
+            0xFF000000
+    };
+
+    private final int cellSize;
+
+    private final int width;
+
+    private final int height;
+
+    private final int[] pixels;
+
+
+    public HeadlessCanvas(int cellSize) {
+
+        this.cellSize = cellSize;
+
+        this.width = (GridModel.COLUMN + 1) * cellSize;
+
+        this.height = (GridModel.ROW + 1) * cellSize;
+
+        this.pixels = new int[width * height];
+    }
+
+
+    public int drawDirtyCells(GridModel gridModel) {
+
+        int drawn = 0;
+
+        for (int i = gridModel.nextDirty(0); i >= 0; i = gridModel.nextDirty(i + 1)) {
+
+            int column = GridModel.column(i);
+
+            int row = GridModel.row(i);
+
+            this.fillRect(column * cellSize, row * cellSize, (column + 1) * cellSize, (row + 1) * cellSize, CELL_TYPE_COLORS[gridModel.getType(i).ordinal()]);
+
+            drawn++;
+        }
+
+        gridModel.clearDirty();
+
+        return drawn;
+    }
+
+
+    public int drawAllCells(GridModel gridModel) {
+
+        for (int i = 0; i < GridModel.CELL_COUNT; i++)
+            gridModel.markDirty(i);
+
+        return this.drawDirtyCells(gridModel);
+    }
+
+
+    public int getPixel(int x, int y) {
+        return pixels[y * width + x];
+    }
+
+
+    private void fillRect(int fromX, int fromY, int toX, int toY, int color) {
+
+        for (int y = fromY + 1; y < toY - 1; y++)
+            for (int x = fromX + 1; x < toX - 1; x++)
+                pixels[y * width + x] = color;
+    }
+}
@@ -0,0 +1,598 @@
+package com.jack.mdpremote.Benchmark;
+
+import com.jack.mdpremote.Bluetooth.ConditionedTransport;
+import com.jack.mdpremote.Bluetooth.FrameAssembler;
+import com.jack.mdpremote.Bluetooth.LinkConditions;
+import com.jack.mdpremote.Bluetooth.LoopbackTransport;
+import com.jack.mdpremote.Bluetooth.SocketTransport;
+import com.jack.mdpremote.Bluetooth.Transport;
+import com.jack.mdpremote.GridMap.CellType;
+import com.jack.mdpremote.GridMap.GridModel;
+import com.jack.mdpremote.GridMap.MapDescriptor;
+import com.jack.mdpremote.Protocol.FrameParser;
+import com.jack.mdpremote.Protocol.MapUpdate;
+import com.jack.mdpremote.Protocol.MapUpdateCoalescer;
+import com.jack.mdpremote.Simulator.Arena;
+import com.jack.mdpremote.Simulator.SimulatedRobot;
+
+import java.io.BufferedWriter;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+
+public class LatencyHarness {
+
+    private static final long FRAME_INTERVAL_NANOS = 1000000000L / 60;
+
+    private static final long DRAIN_TIMEOUT_NANOS = 5000000000L;
+
+    private static final int TRANSPORT = 0, DECODE = 1, APPLY = 2, DRAW = 3, TOTAL = 4;
+
+    private static final String[] STAGE_NAMES = new String[]{"transport", "decode", "apply", "draw", "total"};
+
+    private static final Charset CHARSET = Charset.forName("UTF-8");
+
+    private static final int CONNECT_TIMEOUT_MS = 3000;
+
+    private final Arena arena;
+
+    private final double seconds;
+
+    private final int queueCapacity;
+
+    private final LinkConditions linkConditions;
+
+    private final boolean overSocket;
+
+
+    public LatencyHarness(Arena arena, double seconds, int queueCapacity, LinkConditions linkConditions, boolean overSocket) {
+
+        this.arena = arena;
+
+        this.seconds = seconds;
+
+        this.queueCapacity = queueCapacity;
+
+        this.linkConditions = linkConditions;
+
+        this.overSocket = overSocket;
+    }
+
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+
+        double[] rates = new double[]{10, 50, 100, 250, 500, 1000, 2000};
+
+        double seconds = 5;
+
+        int queueCapacity = 64;
+
+        String outputPath = "latency.csv";
+
+        String arenaPath = null;
+
+        LinkConditions linkConditions = new LinkConditions();
+
+        boolean overSocket = false;
+
+        for (int i = 0; i < args.length; i++) {
+
+            switch (args[i]) {
+
+                case "--rates":
+                    rates = parseRates(args[++i]);
+                    break;
+
+                case "--seconds":
+                    seconds = Double.parseDouble(args[++i]);
+                    break;
+
+                case "--queue":
+                    queueCapacity = Integer.parseInt(args[++i]);
+                    break;
+
+                case "--out":
+                    outputPath = args[++i];
+                    break;
+
+                case "--arena":
+                    arenaPath = args[++i];
+                    break;
+
+                case "--latency-ms":
+                    linkConditions.setLatencyMs(Long.parseLong(args[++i]));
+                    break;
+
+                case "--fragment":
+                    linkConditions.setMaxFragmentBytes(Integer.parseInt(args[++i]));
+                    break;
+
+                case "--transport":
+                    overSocket = parseTransport(args[++i]);
+                    break;
+
+                default:
+                    System.err.println("Usage: LatencyHarness [--rates 10,50,100] [--seconds 5] [--queue 64] [--out latency.csv] [--arena layout.txt] [--latency-ms 0] [--fragment 0] [--transport loopback|socket]");
+                    System.exit(2);
+            }
+        }
+
+        InputStream arenaStream = arenaPath == null ? Arena.class.getResourceAsStream("/arena.txt") : new FileInputStream(arenaPath);
+
+        Arena arena;
+
+        try {
+
+            arena = Arena.load(arenaStream);
+
+        } finally {
+
+            arenaStream.close();
+        }
+
+        LatencyHarness harness = new LatencyHarness(arena, seconds, queueCapacity, linkConditions, overSocket);
+
+        BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(outputPath), CHARSET));
+
+        try {
+
+            writer.write("rate_hz,stage,samples,dropped,coalesced,p50_us,p99_us,max_us\n");
+
+            System.out.println(String.format("%8s %-10s %8s %8s %9s %10s %10s %10s", "rate", "stage", "samples", "dropped", "coalesced", "p50_us", "p99_us", "max_us"));
+
+            for (double rate : rates) {
+
+                StageRecorder[] stages = harness.runStep(rate);
+
+                for (StageRecorder stage : stages) {
+
+                    long[] sorted = stage.sortedMicros();
+
+                    long p50 = StageRecorder.percentile(sorted, 50);
+
+                    long p99 = StageRecorder.percentile(sorted, 99);
+
+                    long max = sorted.length == 0 ? 0 : sorted[sorted.length - 1];
+
+                    writer.write(rate + "," + stage.getName() + "," + stage.getCount() + "," + stage.getDropped() + "," + stage.getCoalesced() + "," + p50 + "," + p99 + "," + max + "\n");
+
+                    System.out.println(String.format("%8.0f %-10s %8d %8d %9d %10d %10d %10d", rate, stage.getName(), stage.getCount(), stage.getDropped(), stage.getCoalesced(), p50, p99, max));
+                }
+            }
+
+        } finally {
+
+            writer.close();
+        }
+
+        System.out.println("Wrote " + outputPath);
+    }
+
+
+    public StageRecorder[] runStep(final double rate) throws IOException, InterruptedException {
+
+        final int frameCount = Math.max(1, (int) (rate * seconds));
+
+        final StageRecorder[] stages = new StageRecorder[STAGE_NAMES.length];
+
+        for (int i = 0; i < stages.length; i++)
+            stages[i] = new StageRecorder(STAGE_NAMES[i], frameCount);
+
+        Transport[] link = this.openLink();
+
+        final OutputStream outputStream = link[0].getOutputStream();
+
+        final long[] sentAt = new long[frameCount];
+
+        final ArrayBlockingQueue<Sample> decodeQueue = new ArrayBlockingQueue<>(queueCapacity);
+
+        final ArrayBlockingQueue<Sample> applyQueue = new ArrayBlockingQueue<>(queueCapacity);
+
+        Thread producer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                produce(outputStream, rate, frameCount, sentAt);
+            }
+        }, "HarnessProducer");
+
+        Reader reader = new Reader(link[1].getInputStream(), frameCount, sentAt, decodeQueue, stages);
+
+        Decoder decoder = new Decoder(reader, decodeQueue, applyQueue, stages);
+
+        producer.start();
+
+        reader.start();
+
+        decoder.start();
+
+        this.runMainLoop(decoder, applyQueue, stages, System.nanoTime() + (long) (seconds * 1e9) + DRAIN_TIMEOUT_NANOS);
+
+        link[0].close();
+
+        link[1].close();
+
+        producer.join();
+
+        reader.join();
+
+        decoder.join();
+
+        for (int i = reader.getReadCount(); i < frameCount; i++)
+            stages[TRANSPORT].drop();
+
+        for (int i = stages[TOTAL].getCount(); i < frameCount; i++)
+            stages[TOTAL].drop();
+
+        return stages;
+    }
+
+
+    private Transport[] openLink() throws IOException {
+
+        if (!overSocket)
+            return LoopbackTransport.pair(linkConditions, new LinkConditions());
+
+        ServerSocket serverSocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+
+        try {
+
+            SocketTransport client = SocketTransport.connect(serverSocket.getInetAddress().getHostAddress(), serverSocket.getLocalPort(), CONNECT_TIMEOUT_MS);
+
+            Socket socket = serverSocket.accept();
+
+            socket.setTcpNoDelay(true);
+
+            return new Transport[]{new SocketTransport(socket), new ConditionedTransport(client, linkConditions, new LinkConditions())};
+
+        } finally {
+
+            serverSocket.close();
+        }
+    }
+
+
+    private void produce(OutputStream outputStream, double rate, int frameCount, long[] sentAt) {
+
+        SimulatedRobot robot = new SimulatedRobot(arena);
+
+        long start = System.nanoTime();
+
+        try {
+
+            for (int i = 0; i < frameCount; i++) {
+
+                long due = start + (long) (i * 1e9 / rate);
+
+                for (long wait = due - System.nanoTime(); wait > 0; wait = due - System.nanoTime())
+                    LockSupport.parkNanos(wait);
+
+                byte[] bytes = (robot.mapFrame() + "\n").getBytes(CHARSET);
+
+                sentAt[i] = System.nanoTime();
+
+                outputStream.write(bytes);
+
+                outputStream.flush();
+
+                if (!robot.step())
+                    robot.reset();
+            }
+
+        } catch (IOException e) {
+
+            e.printStackTrace();
+
+        }
+    }
+
+
+    private void runMainLoop(Decoder decoder, ArrayBlockingQueue<Sample> applyQueue, StageRecorder[] stages, long deadline) throws InterruptedException {
+
+        GridModel gridModel = new GridModel();
+
+        HeadlessCanvas canvas = new HeadlessCanvas(24);
+
+        byte[] cellStates = new byte[MapDescriptor.CELL_COUNT];
+
+        int[] robotCoordinates = new int[]{-1, -1};
+
+        MapUpdateCoalescer coalescer = new MapUpdateCoalescer();
+
+        List<Sample> pendingDraw = new ArrayList<>();
+
+        canvas.drawAllCells(gridModel);
+
+        long nextFrame = System.nanoTime() + FRAME_INTERVAL_NANOS;
+
+        while (System.nanoTime() < deadline && (decoder.isAlive() || !applyQueue.isEmpty() || !pendingDraw.isEmpty())) {
+
+            Sample sample = applyQueue.poll(Math.max(0, nextFrame - System.nanoTime()), TimeUnit.NANOSECONDS);
+
+            if (sample != null) {
+
+                coalescer.offer(sample.update);
+
+                pendingDraw.add(sample);
+
+                continue;
+            }
+
+            long now = System.nanoTime();
+
+            if (now < nextFrame)
+                continue;
+
+            while (nextFrame <= now)
+                nextFrame += FRAME_INTERVAL_NANOS;
+
+            if (pendingDraw.isEmpty())
+                continue;
+
+            applyCoalesced(gridModel, coalescer, cellStates, robotCoordinates);
+
+            long applied = System.nanoTime();
+
+            canvas.drawDirtyCells(gridModel);
+
+            long drawn = System.nanoTime();
+
+            for (int i = 0; i < pendingDraw.size(); i++) {
+
+                Sample drawnSample = pendingDraw.get(i);
+
+                stages[APPLY].record(applied - drawnSample.decoded);
+
+                stages[DRAW].record(drawn - applied);
+
+                stages[TOTAL].record(drawn - drawnSample.sent);
+            }
+
+            for (int i = 1; i < pendingDraw.size(); i++)
+                stages[APPLY].coalesce();
+
+            pendingDraw.clear();
+        }
+    }
+
+
+    private static void applyCoalesced(GridModel gridModel, MapUpdateCoalescer coalescer, byte[] cellStates, int[] robotCoordinates) {
+
+        int radius = gridModel.getFootprintRadius();
+
+        if (coalescer.hasRobot()) {
+
+            int column = coalescer.getRobotX() + 1;
+
+            int row = GridModel.ROW - 1 - coalescer.getRobotY();
+
+            if (gridModel.fitsArena(column, row)) {
+
+                if (robotCoordinates[0] >= 0)
+                    for (int x = robotCoordinates[0] - radius; x <= robotCoordinates[0] + radius; x++)
+                        for (int y = robotCoordinates[1] - radius; y <= robotCoordinates[1] + radius; y++)
+                            gridModel.setType(x, y, CellType.EXPLORED);
+
+                for (int x = column - radius; x <= column + radius; x++)
+                    for (int y = row - radius; y <= row + radius; y++)
+                        gridModel.setType(x, y, CellType.ROBOT);
+
+                robotCoordinates[0] = column;
+
+                robotCoordinates[1] = row;
+            }
+        }
+
+        if (coalescer.getExplored() != null)
+            gridModel.applyDescriptor(cellStates, MapDescriptor.decodeExplored(coalescer.getExplored(), cellStates));
+
+        coalescer.clear();
+    }
+
+
+    private static double[] parseRates(String value) {
+
+        String[] parts = value.split(",");
+
+        double[] rates = new double[parts.length];
+
+        for (int i = 0; i < parts.length; i++)
+            rates[i] = Double.parseDouble(parts[i].trim());
+
+        return rates;
+    }
+
+
+    private static boolean parseTransport(String value) {
+
+        switch (value) {
+
+            case "loopback":
+                return false;
+
+            case "socket":
+                return true;
+
+            default:
+                throw new IllegalArgumentException("Unknown transport " + value);
+        }
+    }
+
+
+    private static class Sample {
+
+        private final String frame;
+
+        private final long sent;
+
+        private final long read;
+
+        private MapUpdate update;
+
+        private long decoded;
+
+
+        private Sample(String frame, long sent, long read) {
+
+            this.frame = frame;
+
+            this.sent = sent;
+
+            this.read = read;
+        }
+    }
+
+
+    private static class Reader extends Thread implements FrameAssembler.Listener {
+
+        private final InputStream inputStream;
+
+        private final int frameCount;
+
+        private final long[] sentAt;
+
+        private final ArrayBlockingQueue<Sample> decodeQueue;
+
+        private final StageRecorder[] stages;
+
+        private final FrameAssembler frameAssembler = new FrameAssembler(this);
+
+        private volatile int readCount = 0;
+
+
+        private Reader(InputStream inputStream, int frameCount, long[] sentAt, ArrayBlockingQueue<Sample> decodeQueue, StageRecorder[] stages) {
+
+            super("HarnessReader");
+
+            this.inputStream = inputStream;
+
+            this.frameCount = frameCount;
+
+            this.sentAt = sentAt;
+
+            this.decodeQueue = decodeQueue;
+
+            this.stages = stages;
+        }
+
+
+        private int getReadCount() {
+            return readCount;
+        }
+
+
+        @Override
+        public void run() {
+
+            byte[] buffer = new byte[1024];
+
+            try {
+
+                while (readCount < frameCount) {
+
+                    int bytes = inputStream.read(buffer);
+
+                    if (bytes < 0)
+                        break;
+
+                    frameAssembler.append(buffer, 0, bytes);
+
+                    if (inputStream.available() == 0)
+                        frameAssembler.flushIfIdle();
+                }
+
+            } catch (IOException e) {
+
+                e.printStackTrace();
+
+            }
+        }
+
+
+        @Override
+        public void onFrame(String frame) {
+
+            long now = System.nanoTime();
+
+            if (readCount >= frameCount)
+                return;
+
+            Sample sample = new Sample(frame, sentAt[readCount], now);
+
+            readCount++;
+
+            stages[TRANSPORT].record(now - sample.sent);
+
+            if (!decodeQueue.offer(sample))
+                stages[DECODE].drop();
+        }
+    }
+
+
+    private static class Decoder extends Thread {
+
+        private final Reader reader;
+
+        private final ArrayBlockingQueue<Sample> decodeQueue;
+
+        private final ArrayBlockingQueue<Sample> applyQueue;
+
+        private final StageRecorder[] stages;
+
+
+        private Decoder(Reader reader, ArrayBlockingQueue<Sample> decodeQueue, ArrayBlockingQueue<Sample> applyQueue, StageRecorder[] stages) {
+
+            super("HarnessDecoder");
+
+            this.reader = reader;
+
+            this.decodeQueue = decodeQueue;
+
+            this.applyQueue = applyQueue;
+
+            this.stages = stages;
+        }
+
+
+        @Override
+        public void run() {
+
+            try {
+
+                while (reader.isAlive() || !decodeQueue.isEmpty()) {
+
+                    Sample sample = decodeQueue.poll(10, TimeUnit.MILLISECONDS);
+
+                    if (sample == null)
+                        continue;
+
+                    sample.update = FrameParser.parse(sample.frame);
+
+                    sample.decoded = System.nanoTime();
+
+                    stages[DECODE].record(sample.decoded - sample.read);
+
+                    if (!applyQueue.offer(sample))
+                        stages[APPLY].drop();
+                }
+
+            } catch (InterruptedException e) {
+
+                Thread.currentThread().interrupt();
+
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.jack.mdpremote.Benchmark;
+
+import java.util.Arrays;
+
+
+public class StageRecorder {
+
+    private final String name;
+
+    private long[] samples;
+
+    private int size = 0;
+
+    private int dropped = 0;
+
+    private int coalesced = 0;
+
+
+    public StageRecorder(String name, int expectedSamples) {
+
+        this.name = name;
+
+        this.samples = new long[Math.max(16, expectedSamples)];
+    }
+
+
+    public String getName() {
+        return name;
+    }
+
+
+    public synchronized void record(long nanos) {
+
+        if (size == samples.length)
+            samples = Arrays.copyOf(samples, size * 2);
+
+        samples[size++] = nanos;
+    }
+
+
+    public synchronized void drop() {
+        dropped++;
+    }
+
+
+    public synchronized void coalesce() {
+        coalesced++;
+    }
+
+
+    public synchronized int getCount() {
+        return size;
+    }
+
+
+    public synchronized int getDropped() {
+        return dropped;
+    }
+
+
+    public synchronized int getCoalesced() {
+        return coalesced;
+    }
+
+
+    public synchronized long[] sortedMicros() {
+
+        long[] sorted = Arrays.copyOf(samples, size);
+
+        Arrays.sort(sorted);
+
+        for (int i = 0; i < sorted.length; i++)
+            sorted[i] /= 1000;
+
+        return sorted;
+    }
+
+
+    public static long percentile(long[] sorted, double percentile) {
+
+        if (sorted.length == 0)
+            return 0;
+
+        int rank = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+
+        return sorted[Math.max(0, Math.min(sorted.length - 1, rank))];
+    }
+}
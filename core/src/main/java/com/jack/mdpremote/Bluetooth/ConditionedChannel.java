@@ -0,0 +1,228 @@
+package com.jack.mdpremote.Bluetooth;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Random;
+
+
+class ConditionedChannel {
+
+    private final LinkConditions conditions;
+
+    private final Random random;
+
+    private final ArrayDeque<Chunk> chunks = new ArrayDeque<>();
+
+    private long transmitEndNanos = 0;
+
+    private boolean closed = false;
+
+    private int droppedWrites = 0;
+
+
+    final InputStream inputStream = new InputStream() {
+        @Override
+        public int read() throws IOException {
+
+            byte[] single = new byte[1];
+
+            return read(single, 0, 1) < 0 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            return ConditionedChannel.this.read(buffer, offset, length);
+        }
+
+        @Override
+        public int available() {
+            return ConditionedChannel.this.available();
+        }
+
+        @Override
+        public void close() {
+            ConditionedChannel.this.close();
+        }
+    };
+
+
+    final OutputStream outputStream = new OutputStream() {
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] buffer, int offset, int length) throws IOException {
+            ConditionedChannel.this.write(buffer, offset, length);
+        }
+
+        @Override
+        public void close() {
+            ConditionedChannel.this.close();
+        }
+    };
+
+
+    ConditionedChannel(LinkConditions conditions) {
+
+        this.conditions = conditions;
+
+        this.random = new Random(conditions.getSeed());
+    }
+
+
+    synchronized int getDroppedWrites() {
+        return droppedWrites;
+    }
+
+
+    synchronized boolean isClosed() {
+        return closed;
+    }
+
+
+    synchronized void close() {
+
+        closed = true;
+
+        this.notifyAll();
+    }
+
+
+    private synchronized void write(byte[] buffer, int offset, int length) throws IOException {
+
+        if (closed)
+            throw new IOException("Channel closed");
+
+        if (length == 0)
+            return;
+
+        if (conditions.getDropRate() > 0 && random.nextDouble() < conditions.getDropRate()) {
+
+            droppedWrites++;
+
+            return;
+        }
+
+        long now = System.nanoTime();
+
+        int end = offset + length;
+
+        while (offset < end) {
+
+            int size = end - offset;
+
+            if (conditions.getMaxFragmentBytes() > 0)
+                size = Math.min(size, 1 + random.nextInt(conditions.getMaxFragmentBytes()));
+
+            long transmitStart = Math.max(now, transmitEndNanos);
+
+            transmitEndNanos = transmitStart;
+
+            if (conditions.getBytesPerSecond() > 0)
+                transmitEndNanos += size * 1000000000L / conditions.getBytesPerSecond();
+
+            byte[] data = new byte[size];
+
+            System.arraycopy(buffer, offset, data, 0, size);
+
+            chunks.add(new Chunk(data, transmitEndNanos + conditions.getLatencyMs() * 1000000L));
+
+            offset += size;
+        }
+
+        this.notifyAll();
+    }
+
+
+    private synchronized int read(byte[] buffer, int offset, int length) throws IOException {
+
+        if (length == 0)
+            return 0;
+
+        try {
+
+            while (true) {
+
+                Chunk head = chunks.peek();
+
+                if (head == null) {
+
+                    if (closed)
+                        return -1;
+
+                    this.wait();
+
+                    continue;
+                }
+
+                long waitNanos = head.dueNanos - System.nanoTime();
+
+                if (waitNanos > 0) {
+
+                    this.wait(waitNanos / 1000000, (int) (waitNanos % 1000000));
+
+                    continue;
+                }
+
+                int count = 0;
+
+                do {
+
+                    int size = Math.min(length - count, head.data.length - head.offset);
+
+                    System.arraycopy(head.data, head.offset, buffer, offset + count, size);
+
+                    head.offset += size;
+
+                    count += size;
+
+                    if (head.offset == head.data.length)
+                        chunks.poll();
+
+                    head = chunks.peek();
+
+                } while (conditions.isCoalescing() && count < length && head != null && head.dueNanos <= System.nanoTime());
+
+                return count;
+            }
+
+        } catch (InterruptedException e) {
+
+            throw new InterruptedIOException();
+        }
+    }
+
+
+    private synchronized int available() {
+
+        Chunk head = chunks.peek();
+
+        if (head == null || head.dueNanos > System.nanoTime())
+            return 0;
+
+        return head.data.length - head.offset;
+    }
+
+
+    private static class Chunk {
+
+        private final byte[] data;
+
+        private final long dueNanos;
+
+        private int offset = 0;
+
+
+        private Chunk(byte[] data, long dueNanos) {
+
+            this.data = data;
+
+            this.dueNanos = dueNanos;
+        }
+    }
+}
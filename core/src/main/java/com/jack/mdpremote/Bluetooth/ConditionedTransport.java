@@ -0,0 +1,104 @@
+package com.jack.mdpremote.Bluetooth;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+
+public class ConditionedTransport implements Transport {
+
+    private final Transport transport;
+
+    private final ConditionedChannel incoming;
+
+    private final ConditionedChannel outgoing;
+
+
+    public ConditionedTransport(Transport transport, LinkConditions inbound, LinkConditions outbound) throws IOException {
+
+        this.transport = transport;
+
+        this.incoming = new ConditionedChannel(inbound);
+
+        this.outgoing = new ConditionedChannel(outbound);
+
+        this.pump("ConditionedTransport-in", transport.getInputStream(), incoming.outputStream, incoming);
+
+        this.pump("ConditionedTransport-out", outgoing.inputStream, transport.getOutputStream(), outgoing);
+    }
+
+
+    public int getDroppedInbound() {
+        return incoming.getDroppedWrites();
+    }
+
+
+    public int getDroppedOutbound() {
+        return outgoing.getDroppedWrites();
+    }
+
+
+    @Override
+    public InputStream getInputStream() {
+        return incoming.inputStream;
+    }
+
+
+    @Override
+    public OutputStream getOutputStream() {
+        return outgoing.outputStream;
+    }
+
+
+    @Override
+    public String getName() {
+        return transport.getName();
+    }
+
+
+    @Override
+    public void close() throws IOException {
+
+        incoming.close();
+
+        outgoing.close();
+
+        transport.close();
+    }
+
+
+    private void pump(String name, final InputStream from, final OutputStream to, final ConditionedChannel channel) {
+
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+
+                byte[] buffer = new byte[1024];
+
+                try {
+
+                    int count;
+
+                    while ((count = from.read(buffer)) >= 0) {
+
+                        to.write(buffer, 0, count);
+
+                        to.flush();
+                    }
+
+                } catch (IOException e) {
+
+                    if (!channel.isClosed())
+                        e.printStackTrace();
+
+                }
+
+                channel.close();
+            }
+        }, name);
+
+        thread.setDaemon(true);
+
+        thread.start();
+    }
+}
@@ -0,0 +1,167 @@
+package com.jack.mdpremote.Bluetooth;
+
+import java.nio.charset.Charset;
+
+
+public class FrameAssembler {
+
+    private static final int CAPACITY = 4096;
+
+    private static final int MASK = CAPACITY - 1;
+
+    private static final byte DELIMITER = '\n';
+
+    private static final byte CARRIAGE_RETURN = '\r';
+
+    private static final int MAP_FRAME_LENGTH = 158;
+
+    private static final int HEADER_LENGTH = 3;
+
+    private static final byte[] MAP_HEADER = new byte[]{'B', '4', ':'};
+
+    private static final byte[] IMAGE_HEADER = new byte[]{'B', '5', ':'};
+
+    private final byte[] ring = new byte[CAPACITY];
+
+    private final byte[] frame = new byte[CAPACITY];
+
+    private final Charset charset = Charset.defaultCharset();
+
+    private final Listener listener;
+
+    private int head = 0;
+
+    private int size = 0;
+
+    private int scanned = 0;
+
+    private boolean previousFrameDelimited = false;
+
+
+    public interface Listener {
+        void onFrame(String frame);
+    }
+
+
+    public FrameAssembler(Listener listener) {
+        this.listener = listener;
+    }
+
+
+    public void append(byte[] data, int offset, int length) {
+
+        for (int i = 0; i < length; i++) {
+
+            if (size == CAPACITY)
+                this.emit(size, 0);
+
+            ring[(head + size) & MASK] = data[offset + i];
+
+            size++;
+
+            this.extract();
+        }
+    }
+
+
+    public void flushIfIdle() {
+
+        if (previousFrameDelimited || size == 0 || this.isPartialFrame())
+            return;
+
+        int length = size;
+
+        for (int held = HEADER_LENGTH - 1; held > 0; held--) {
+
+            if (size > held && this.startsFrame(size - held, held)) {
+
+                length = size - held;
+
+                break;
+            }
+        }
+
+        this.emit(length, 0);
+    }
+
+
+    public void reset() {
+
+        head = 0;
+
+        size = 0;
+
+        scanned = 0;
+
+        previousFrameDelimited = false;
+    }
+
+
+    private void extract() {
+
+        while (scanned < size) {
+
+            if (ring[(head + scanned) & MASK] == DELIMITER) {
+
+                this.emit(scanned, 1);
+
+                continue;
+            }
+
+            scanned++;
+
+            if (scanned == MAP_FRAME_LENGTH && this.matches(MAP_HEADER, 0, HEADER_LENGTH))
+                this.emit(scanned, 0);
+
+            else if (scanned > HEADER_LENGTH && this.startsFrame(scanned - HEADER_LENGTH, HEADER_LENGTH))
+                this.emit(scanned - HEADER_LENGTH, 0);
+        }
+    }
+
+
+    private boolean startsFrame(int offset, int count) {
+        return this.matches(MAP_HEADER, offset, count) || this.matches(IMAGE_HEADER, offset, count);
+    }
+
+
+    private boolean matches(byte[] header, int offset, int count) {
+
+        for (int i = 0; i < Math.min(count, header.length); i++)
+            if (ring[(head + offset + i) & MASK] != header[i])
+                return false;
+
+        return true;
+    }
+
+
+    private boolean isPartialFrame() {
+
+        if (size < MAP_FRAME_LENGTH && this.matches(MAP_HEADER, 0, size))
+            return true;
+
+        return this.matches(IMAGE_HEADER, 0, size);
+    }
+
+
+    private void emit(int length, int skip) {
+
+        int frameLength = length;
+
+        while (frameLength > 0 && ring[(head + frameLength - 1) & MASK] == CARRIAGE_RETURN)
+            frameLength--;
+
+        for (int i = 0; i < frameLength; i++)
+            frame[i] = ring[(head + i) & MASK];
+
+        head = (head + length + skip) & MASK;
+
+        size -= length + skip;
+
+        scanned = 0;
+
+        previousFrameDelimited = skip > 0;
+
+        if (frameLength > 0)
+            listener.onFrame(new String(frame, 0, frameLength, charset));
+    }
+}
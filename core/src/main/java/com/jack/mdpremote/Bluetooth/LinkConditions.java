@@ -0,0 +1,95 @@
+package com.jack.mdpremote.Bluetooth;
+
+
+public class LinkConditions {
+
+    private long latencyMs = 0;
+
+    private long bytesPerSecond = 0;
+
+    private int maxFragmentBytes = 0;
+
+    private boolean coalescing = true;
+
+    private double dropRate = 0;
+
+    private long seed = 0;
+
+
+    public LinkConditions setLatencyMs(long latencyMs) {
+
+        this.latencyMs = latencyMs;
+
+        return this;
+    }
+
+
+    public LinkConditions setBytesPerSecond(long bytesPerSecond) {
+
+        this.bytesPerSecond = bytesPerSecond;
+
+        return this;
+    }
+
+
+    public LinkConditions setMaxFragmentBytes(int maxFragmentBytes) {
+
+        this.maxFragmentBytes = maxFragmentBytes;
+
+        return this;
+    }
+
+
+    public LinkConditions setCoalescing(boolean coalescing) {
+
+        this.coalescing = coalescing;
+
+        return this;
+    }
+
+
+    public LinkConditions setDropRate(double dropRate) {
+
+        this.dropRate = dropRate;
+
+        return this;
+    }
+
+
+    public LinkConditions setSeed(long seed) {
+
+        this.seed = seed;
+
+        return this;
+    }
+
+
+    public long getLatencyMs() {
+        return latencyMs;
+    }
+
+
+    public long getBytesPerSecond() {
+        return bytesPerSecond;
+    }
+
+
+    public int getMaxFragmentBytes() {
+        return maxFragmentBytes;
+    }
+
+
+    public boolean isCoalescing() {
+        return coalescing;
+    }
+
+
+    public double getDropRate() {
+        return dropRate;
+    }
+
+
+    public long getSeed() {
+        return seed;
+    }
+}
@@ -0,0 +1,69 @@
+package com.jack.mdpremote.Bluetooth;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+
+
+public class LoopbackTransport implements Transport {
+
+    private final String name;
+
+    private final ConditionedChannel incoming;
+
+    private final ConditionedChannel outgoing;
+
+
+    private LoopbackTransport(String name, ConditionedChannel incoming, ConditionedChannel outgoing) {
+
+        this.name = name;
+
+        this.incoming = incoming;
+
+        this.outgoing = outgoing;
+    }
+
+
+    public static LoopbackTransport[] pair(LinkConditions forward, LinkConditions backward) {
+
+        ConditionedChannel forwardChannel = new ConditionedChannel(forward);
+
+        ConditionedChannel backwardChannel = new ConditionedChannel(backward);
+
+        return new LoopbackTransport[]{
+                new LoopbackTransport("Loopback A", backwardChannel, forwardChannel),
+                new LoopbackTransport("Loopback B", forwardChannel, backwardChannel)
+        };
+    }
+
+
+    public int getDroppedWrites() {
+        return outgoing.getDroppedWrites();
+    }
+
+
+    @Override
+    public InputStream getInputStream() {
+        return incoming.inputStream;
+    }
+
+
+    @Override
+    public OutputStream getOutputStream() {
+        return outgoing.outputStream;
+    }
+
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+
+    @Override
+    public void close() {
+
+        incoming.close();
+
+        outgoing.close();
+    }
+}
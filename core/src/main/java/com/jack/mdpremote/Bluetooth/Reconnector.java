@@ -0,0 +1,87 @@
+package com.jack.mdpremote.Bluetooth;
+
+import com.jack.mdpremote.Metrics.HotPathMetrics;
+
+import java.io.IOException;
+
+
+public class Reconnector extends Thread {
+
+    private final TransportConnector connector;
+
+    private final long retryDelayMs;
+
+    private final Listener listener;
+
+    private volatile boolean running = true;
+
+    private volatile int attemptCount = 0;
+
+
+    public interface Listener {
+        void onConnected(Transport transport);
+    }
+
+
+    public Reconnector(TransportConnector connector, long retryDelayMs, Listener listener) {
+
+        super("Reconnector");
+
+        this.connector = connector;
+
+        this.retryDelayMs = retryDelayMs;
+
+        this.listener = listener;
+    }
+
+
+    public int getAttemptCount() {
+        return attemptCount;
+    }
+
+
+    @Override
+    public void run() {
+
+        while (running && connector.isAvailable()) {
+
+            attemptCount++;
+
+            HotPathMetrics.increment(HotPathMetrics.RECONNECTS);
+
+            try {
+
+                Transport transport = connector.connect();
+
+                if (running)
+                    listener.onConnected(transport);
+                else
+                    transport.close();
+
+                return;
+
+            } catch (IOException e) {
+
+            }
+
+            try {
+
+                sleep(retryDelayMs);
+
+            } catch (InterruptedException e) {
+
+                return;
+            }
+        }
+    }
+
+
+    public void cancel() {
+
+        running = false;
+
+        connector.cancel();
+
+        this.interrupt();
+    }
+}
@@ -0,0 +1,63 @@
+package com.jack.mdpremote.Bluetooth;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+
+
+public class SocketTransport implements Transport {
+
+    private final Socket socket;
+
+
+    public SocketTransport(Socket socket) {
+        this.socket = socket;
+    }
+
+
+    public static SocketTransport connect(String host, int port, int timeoutMs) throws IOException {
+
+        Socket socket = new Socket();
+
+        try {
+
+            socket.setTcpNoDelay(true);
+
+            socket.connect(new InetSocketAddress(host, port), timeoutMs);
+
+        } catch (IOException e) {
+
+            socket.close();
+
+            throw e;
+        }
+
+        return new SocketTransport(socket);
+    }
+
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        return socket.getInputStream();
+    }
+
+
+    @Override
+    public OutputStream getOutputStream() throws IOException {
+        return socket.getOutputStream();
+    }
+
+
+    @Override
+    public String getName() {
+        return socket.getInetAddress().getHostAddress() + ":" + socket.getPort();
+    }
+
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+}
@@ -0,0 +1,17 @@
+package com.jack.mdpremote.Bluetooth;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+
+public interface Transport {
+
+    InputStream getInputStream() throws IOException;
+
+    OutputStream getOutputStream() throws IOException;
+
+    String getName();
+
+    void close() throws IOException;
+}
@@ -0,0 +1,13 @@
+package com.jack.mdpremote.Bluetooth;
+
+import java.io.IOException;
+
+
+public interface TransportConnector {
+
+    boolean isAvailable();
+
+    Transport connect() throws IOException;
+
+    void cancel();
+}
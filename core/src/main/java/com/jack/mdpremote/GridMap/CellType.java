@@ -0,0 +1,23 @@
+package com.jack.mdpremote.GridMap;
+
+
+public enum CellType {
+
+    UNEXPLORED,
+
+    EXPLORED,
+
+    OBSTACLE,
+
+    ROBOT,
+
+    END,
+
+    START,
+
+    WAYPOINT,
+
+    IMAGE;
+
+    static final CellType[] VALUES = values();
+}
@@ -0,0 +1,105 @@
+package com.jack.mdpremote.GridMap;
+
+
+class ConfigurationSpace {
+
+    private static final int COLUMN = GridModel.COLUMN, ROW = GridModel.ROW;
+
+    private final short[] blockingCounts = new short[GridModel.CELL_COUNT];
+
+    private final long[] standBits = new long[GridModel.WORD_COUNT];
+
+    private int radius;
+
+
+    ConfigurationSpace(int footprintSize) {
+        this.setFootprintSize(footprintSize, new long[GridModel.WORD_COUNT]);
+    }
+
+
+    int getRadius() {
+        return radius;
+    }
+
+
+    void setFootprintSize(int footprintSize, long[] occupiedBits) {
+
+        if (footprintSize < 1 || footprintSize % 2 == 0 || footprintSize > Math.min(COLUMN, ROW))
+            throw new IllegalArgumentException("Footprint size must be odd and fit the arena: " + footprintSize);
+
+        radius = footprintSize / 2;
+
+        for (int i = 0; i < blockingCounts.length; i++)
+            blockingCounts[i] = 0;
+
+        for (int i = 0; i < GridModel.WORD_COUNT; i++)
+            for (long word = occupiedBits[i]; word != 0; word &= word - 1)
+                this.spread((i << 6) + Long.numberOfTrailingZeros(word), 1);
+
+        for (int i = 0; i < GridModel.CELL_COUNT; i++)
+            this.updateStandBit(i);
+    }
+
+
+    void occupancyChanged(int index, boolean occupied) {
+
+        int column = GridModel.column(index);
+
+        int row = GridModel.row(index);
+
+        this.spread(index, occupied ? 1 : -1);
+
+        for (int x = Math.max(1, column - radius); x <= Math.min(COLUMN, column + radius); x++)
+            for (int y = Math.max(0, row - radius); y <= Math.min(ROW - 1, row + radius); y++)
+                this.updateStandBit(GridModel.index(x, y));
+    }
+
+
+    void clear() {
+
+        for (int i = 0; i < blockingCounts.length; i++)
+            blockingCounts[i] = 0;
+
+        for (int i = 0; i < GridModel.CELL_COUNT; i++)
+            this.updateStandBit(i);
+    }
+
+
+    boolean fitsArena(int column, int row) {
+        return column - radius >= 1 && column + radius <= COLUMN && row - radius >= 0 && row + radius <= ROW - 1;
+    }
+
+
+    boolean canStand(int column, int row) {
+
+        if (!GridModel.contains(column, row))
+            return false;
+
+        int index = GridModel.index(column, row);
+
+        return (standBits[index >>> 6] & (1L << index)) != 0;
+    }
+
+
+    private void spread(int index, int delta) {
+
+        int column = GridModel.column(index);
+
+        int row = GridModel.row(index);
+
+        for (int x = Math.max(1, column - radius); x <= Math.min(COLUMN, column + radius); x++)
+            for (int y = Math.max(0, row - radius); y <= Math.min(ROW - 1, row + radius); y++)
+                blockingCounts[GridModel.index(x, y)] += delta;
+    }
+
+
+    private void updateStandBit(int index) {
+
+        long bit = 1L << index;
+
+        if (blockingCounts[index] == 0 && this.fitsArena(GridModel.column(index), GridModel.row(index)))
+            standBits[index >>> 6] |= bit;
+        else
+            standBits[index >>> 6] &= ~bit;
+    }
+}
@@ -0,0 +1,368 @@
+package com.jack.mdpremote.GridMap;
+
+
+public class GridModel {
+
+    public static final int COLUMN = 15, ROW = 20;
+
+    public static final int CELL_COUNT = COLUMN * ROW;
+
+    public static final int DEFAULT_FOOTPRINT_SIZE = 3;
+
+    public static final int WORD_COUNT = (CELL_COUNT + 63) >>> 6;
+
+    private static final long LAST_WORD_MASK = -1L >>> (WORD_COUNT * 64 - CELL_COUNT);
+
+    private final byte[] types = new byte[CELL_COUNT];
+
+    private final long[][] typeBits = new long[CellType.VALUES.length][WORD_COUNT];
+
+    private final long[] dirtyBits = new long[WORD_COUNT];
+
+    private final long[] occupiedBits = new long[WORD_COUNT];
+
+    private final ConfigurationSpace configurationSpace = new ConfigurationSpace(DEFAULT_FOOTPRINT_SIZE);
+
+
+    public GridModel() {
+        this.fill(CellType.UNEXPLORED);
+    }
+
+
+    public static boolean contains(int column, int row) {
+        return column >= 1 && column <= COLUMN && row >= 0 && row < ROW;
+    }
+
+
+    public static int index(int column, int row) {
+        return (ROW - 1 - row) * COLUMN + (column - 1);
+    }
+
+
+    public static int column(int index) {
+        return 1 + (index % COLUMN);
+    }
+
+
+    public static int row(int index) {
+        return ROW - 1 - (index / COLUMN);
+    }
+
+
+    public CellType getType(int index) {
+        return CellType.VALUES[types[index]];
+    }
+
+
+    public CellType getType(int column, int row) {
+
+        if (!contains(column, row))
+            return null;
+
+        return this.getType(index(column, row));
+    }
+
+
+    public boolean is(int index, CellType type) {
+        return types[index] == type.ordinal();
+    }
+
+
+    public boolean is(int column, int row, CellType type) {
+        return contains(column, row) && this.is(index(column, row), type);
+    }
+
+
+    public boolean setType(int index, CellType type) {
+
+        int previous = types[index];
+
+        int next = type.ordinal();
+
+        if (previous == next)
+            return false;
+
+        long bit = 1L << index;
+
+        typeBits[previous][index >>> 6] &= ~bit;
+
+        typeBits[next][index >>> 6] |= bit;
+
+        dirtyBits[index >>> 6] |= bit;
+
+        types[index] = (byte) next;
+
+        return true;
+    }
+
+
+    public boolean setType(int column, int row, CellType type) {
+
+        if (!contains(column, row))
+            return false;
+
+        return this.setType(index(column, row), type);
+    }
+
+
+    public int count(CellType type) {
+
+        long[] bits = typeBits[type.ordinal()];
+
+        int count = 0;
+
+        for (int i = 0; i < WORD_COUNT; i++)
+            count += Long.bitCount(bits[i]);
+
+        return count;
+    }
+
+
+    public int exploredCount() {
+
+        long[] explored = typeBits[CellType.EXPLORED.ordinal()];
+
+        long[] robot = typeBits[CellType.ROBOT.ordinal()];
+
+        long[] obstacle = typeBits[CellType.OBSTACLE.ordinal()];
+
+        long[] image = typeBits[CellType.IMAGE.ordinal()];
+
+        int count = 0;
+
+        for (int i = 0; i < WORD_COUNT; i++)
+            count += Long.bitCount(explored[i] | robot[i] | obstacle[i] | image[i]);
+
+        return count;
+    }
+
+
+    public long word(CellType type, int word) {
+        return typeBits[type.ordinal()][word];
+    }
+
+
+    public void unionInto(CellType type, long[] words) {
+
+        long[] bits = typeBits[type.ordinal()];
+
+        for (int i = 0; i < WORD_COUNT; i++)
+            words[i] |= bits[i];
+    }
+
+
+    public void fill(CellType type) {
+
+        int ordinal = type.ordinal();
+
+        for (int t = 0; t < typeBits.length; t++) {
+
+            long[] bits = typeBits[t];
+
+            for (int i = 0; i < WORD_COUNT; i++)
+                bits[i] = t == ordinal ? (i == WORD_COUNT - 1 ? LAST_WORD_MASK : -1L) : 0L;
+        }
+
+        for (int i = 0; i < CELL_COUNT; i++)
+            types[i] = (byte) ordinal;
+
+        for (int i = 0; i < WORD_COUNT; i++)
+            dirtyBits[i] = i == WORD_COUNT - 1 ? LAST_WORD_MASK : -1L;
+    }
+
+
+    public void replace(CellType from, CellType to) {
+
+        if (from == to)
+            return;
+
+        long[] fromBits = typeBits[from.ordinal()];
+
+        long[] toBits = typeBits[to.ordinal()];
+
+        for (int i = 0; i < WORD_COUNT; i++) {
+
+            long word = fromBits[i];
+
+            if (word == 0)
+                continue;
+
+            toBits[i] |= word;
+
+            fromBits[i] = 0L;
+
+            dirtyBits[i] |= word;
+
+            while (word != 0) {
+
+                types[(i << 6) + Long.numberOfTrailingZeros(word)] = (byte) to.ordinal();
+
+                word &= word - 1;
+            }
+        }
+    }
+
+
+    public boolean setOccupied(int index, boolean occupied) {
+
+        long bit = 1L << index;
+
+        long word = occupiedBits[index >>> 6];
+
+        if (((word & bit) != 0) == occupied)
+            return false;
+
+        occupiedBits[index >>> 6] = word ^ bit;
+
+        configurationSpace.occupancyChanged(index, occupied);
+
+        return true;
+    }
+
+
+    public boolean setOccupied(int column, int row, boolean occupied) {
+
+        if (!contains(column, row))
+            return false;
+
+        return this.setOccupied(index(column, row), occupied);
+    }
+
+
+    public boolean isOccupied(int index) {
+        return (occupiedBits[index >>> 6] & (1L << index)) != 0;
+    }
+
+
+    public boolean isOccupied(int column, int row) {
+        return contains(column, row) && this.isOccupied(index(column, row));
+    }
+
+
+    public int occupiedCount() {
+
+        int count = 0;
+
+        for (int i = 0; i < WORD_COUNT; i++)
+            count += Long.bitCount(occupiedBits[i]);
+
+        return count;
+    }
+
+
+    public int nextOccupied(int fromIndex) {
+        return nextSetBit(occupiedBits, fromIndex);
+    }
+
+
+    public void clearOccupied() {
+
+        for (int i = 0; i < WORD_COUNT; i++)
+            occupiedBits[i] = 0L;
+
+        configurationSpace.clear();
+    }
+
+
+    public void applyDescriptor(byte[] cellStates, int count) {
+
+        for (int i = 0; i < count; i++) {
+
+            if (this.is(i, CellType.ROBOT))
+                continue;
+
+            switch (cellStates[i]) {
+
+                case MapDescriptor.EXPLORED:
+                    this.setOccupied(i, false);
+                    this.setType(i, CellType.EXPLORED);
+                    break;
+
+                case MapDescriptor.OBSTACLE:
+                    this.setOccupied(i, true);
+                    this.setType(i, CellType.OBSTACLE);
+                    break;
+
+                default:
+                    this.setOccupied(i, false);
+                    this.setType(i, CellType.UNEXPLORED);
+                    break;
+            }
+        }
+    }
+
+
+    public void setFootprintSize(int footprintSize) {
+        configurationSpace.setFootprintSize(footprintSize, occupiedBits);
+    }
+
+
+    public int getFootprintRadius() {
+        return configurationSpace.getRadius();
+    }
+
+
+    public boolean fitsArena(int column, int row) {
+        return configurationSpace.fitsArena(column, row);
+    }
+
+
+    public boolean canStand(int column, int row) {
+        return configurationSpace.canStand(column, row);
+    }
+
+
+    public void markDirty(int index) {
+        dirtyBits[index >>> 6] |= 1L << index;
+    }
+
+
+    public void markDirty(int column, int row) {
+
+        if (contains(column, row))
+            this.markDirty(index(column, row));
+    }
+
+
+    public boolean hasDirty() {
+
+        for (int i = 0; i < WORD_COUNT; i++)
+            if (dirtyBits[i] != 0)
+                return true;
+
+        return false;
+    }
+
+
+    public int nextDirty(int fromIndex) {
+        return nextSetBit(dirtyBits, fromIndex);
+    }
+
+
+    public void clearDirty() {
+
+        for (int i = 0; i < WORD_COUNT; i++)
+            dirtyBits[i] = 0L;
+    }
+
+
+    private static int nextSetBit(long[] bits, int fromIndex) {
+
+        if (fromIndex >= CELL_COUNT)
+            return -1;
+
+        int i = fromIndex >>> 6;
+
+        long word = bits[i] & (-1L << fromIndex);
+
+        while (word == 0) {
+
+            if (++i == WORD_COUNT)
+                return -1;
+
+            word = bits[i];
+        }
+
+        return (i << 6) + Long.numberOfTrailingZeros(word);
+    }
+}
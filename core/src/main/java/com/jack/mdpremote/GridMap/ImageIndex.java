@@ -0,0 +1,74 @@
+package com.jack.mdpremote.GridMap;
+
+import java.util.Arrays;
+
+
+public class ImageIndex {
+
+    public static final int NONE = -1;
+
+    private final byte[] imageIds = new byte[GridModel.CELL_COUNT];
+
+    private final long[] firstSeen = new long[GridModel.CELL_COUNT];
+
+    private final short[] cells = new short[GridModel.CELL_COUNT];
+
+    private int size = 0;
+
+
+    public ImageIndex() {
+        Arrays.fill(imageIds, (byte) NONE);
+    }
+
+
+    public boolean put(int cell, int imageId, long timestamp) {
+
+        if (imageId < 0 || imageId > Byte.MAX_VALUE)
+            throw new IllegalArgumentException("Image id out of range: " + imageId);
+
+        if (imageIds[cell] != NONE)
+            return false;
+
+        imageIds[cell] = (byte) imageId;
+
+        firstSeen[cell] = timestamp;
+
+        cells[size++] = (short) cell;
+
+        return true;
+    }
+
+
+    public boolean contains(int cell) {
+        return imageIds[cell] != NONE;
+    }
+
+
+    public int getImageId(int cell) {
+        return imageIds[cell];
+    }
+
+
+    public long getFirstSeen(int cell) {
+        return imageIds[cell] == NONE ? 0 : firstSeen[cell];
+    }
+
+
+    public int size() {
+        return size;
+    }
+
+
+    public int cellAt(int position) {
+        return cells[position];
+    }
+
+
+    public void clear() {
+
+        for (int i = 0; i < size; i++)
+            imageIds[cells[i]] = NONE;
+
+        size = 0;
+    }
+}
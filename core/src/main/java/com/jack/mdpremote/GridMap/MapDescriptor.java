@@ -0,0 +1,253 @@
+package com.jack.mdpremote.GridMap;
+
+
+public final class MapDescriptor {
+
+    public static final int CELL_COUNT = 300;
+
+    public static final int EXPLORED_HEX_LENGTH = CELL_COUNT / 2;
+
+    public static final int EXPORT_HEX_LENGTH = (CELL_COUNT + 4) / 4;
+
+    public static final int OBSTACLE_HEX_CAPACITY = (CELL_COUNT + 7) / 8 * 2;
+
+    public static final byte UNEXPLORED = 0;
+
+    public static final byte EXPLORED = 1;
+
+    public static final byte OBSTACLE = 2;
+
+    private static final byte[] HEX_VALUES = new byte[128];
+
+    private static final byte[] PAIR_STATES = new byte[]{UNEXPLORED, OBSTACLE, EXPLORED, EXPLORED};
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    static {
+
+        for (int i = 0; i < HEX_VALUES.length; i++)
+            HEX_VALUES[i] = -1;
+
+        for (int i = 0; i < 10; i++)
+            HEX_VALUES['0' + i] = (byte) i;
+
+        for (int i = 0; i < 6; i++) {
+            HEX_VALUES['a' + i] = (byte) (10 + i);
+            HEX_VALUES['A' + i] = (byte) (10 + i);
+        }
+    }
+
+
+    private MapDescriptor() {
+    }
+
+
+    public static int hexValue(char c) {
+
+        if (c >= HEX_VALUES.length)
+            return -1;
+
+        return HEX_VALUES[c];
+    }
+
+
+    public static int decodeExplored(CharSequence hex, byte[] cellStates) {
+
+        int length = Math.min(hex.length(), cellStates.length / 2);
+
+        for (int i = 0; i < length; i++)
+            if (hexValue(hex.charAt(i)) < 0)
+                return -1;
+
+        for (int i = 0; i < length; i++) {
+
+            int nibble = HEX_VALUES[hex.charAt(i)];
+
+            cellStates[2 * i] = PAIR_STATES[nibble >>> 2];
+
+            cellStates[2 * i + 1] = PAIR_STATES[nibble & 3];
+        }
+
+        return length * 2;
+    }
+
+
+    public static int encodeExplored(GridModel gridModel, char[] hex) {
+
+        int length = 0;
+
+        int nibble = 3;
+
+        int bits = 2;
+
+        for (int w = 0; w < GridModel.WORD_COUNT; w++) {
+
+            long explored = exploredWord(gridModel, w);
+
+            int end = Math.min(64, CELL_COUNT - (w << 6));
+
+            for (int i = 0; i < end; i++) {
+
+                nibble = (nibble << 1) | (int) ((explored >>> i) & 1);
+
+                if (++bits == 4) {
+
+                    hex[length++] = HEX_DIGITS[nibble];
+
+                    nibble = 0;
+
+                    bits = 0;
+                }
+            }
+        }
+
+        for (int i = 0; i < 2; i++) {
+
+            nibble = (nibble << 1) | 1;
+
+            if (++bits == 4) {
+
+                hex[length++] = HEX_DIGITS[nibble];
+
+                nibble = 0;
+
+                bits = 0;
+            }
+        }
+
+        return length;
+    }
+
+
+    public static int encodeObstacle(GridModel gridModel, char[] hex) {
+
+        int length = 0;
+
+        int value = 0;
+
+        int bits = 0;
+
+        int total = 0;
+
+        for (int w = 0; w < GridModel.WORD_COUNT; w++) {
+
+            long obstacle = obstacleWord(gridModel, w);
+
+            for (long explored = exploredWord(gridModel, w); explored != 0; explored &= explored - 1) {
+
+                value = (value << 1) | (int) ((obstacle >>> Long.numberOfTrailingZeros(explored)) & 1);
+
+                total++;
+
+                if (++bits == 8) {
+
+                    length = appendByte(hex, length, value);
+
+                    value = 0;
+
+                    bits = 0;
+                }
+            }
+        }
+
+        if (bits > 0)
+            length = appendByte(hex, length, value << (8 - bits));
+
+        if (total == 0)
+            return 0;
+
+        if (length == 0) {
+
+            hex[0] = '0';
+
+            hex[1] = '0';
+
+            return 2;
+        }
+
+        return length;
+    }
+
+
+    public static int obstacleBitLength(GridModel gridModel) {
+        return (gridModel.exploredCount() + 7) / 8 * 8;
+    }
+
+
+    public static int decodeExport(CharSequence exploredHex, CharSequence obstacleHex, byte[] cellStates) {
+
+        if (exploredHex.length() != EXPORT_HEX_LENGTH || cellStates.length < CELL_COUNT)
+            return -1;
+
+        int explored = 0;
+
+        for (int i = 0; i < CELL_COUNT; i++) {
+
+            int nibble = hexValue(exploredHex.charAt((i + 2) >>> 2));
+
+            if (nibble < 0)
+                return -1;
+
+            boolean isExplored = ((nibble >>> (3 - ((i + 2) & 3))) & 1) != 0;
+
+            cellStates[i] = isExplored ? EXPLORED : UNEXPLORED;
+
+            if (isExplored)
+                explored++;
+        }
+
+        if (obstacleHex == null)
+            return CELL_COUNT;
+
+        int padding = (explored + 7) / 8 * 2 - obstacleHex.length();
+
+        if (padding < 0)
+            return -1;
+
+        for (int i = 0, k = 0; i < CELL_COUNT; i++) {
+
+            if (cellStates[i] != EXPLORED)
+                continue;
+
+            int digit = (k >>> 2) - padding;
+
+            if (digit >= 0) {
+
+                int nibble = hexValue(obstacleHex.charAt(digit));
+
+                if (nibble < 0)
+                    return -1;
+
+                if (((nibble >>> (3 - (k & 3))) & 1) != 0)
+                    cellStates[i] = OBSTACLE;
+            }
+
+            k++;
+        }
+
+        return CELL_COUNT;
+    }
+
+
+    private static long exploredWord(GridModel gridModel, int word) {
+        return gridModel.word(CellType.EXPLORED, word) | gridModel.word(CellType.ROBOT, word) | gridModel.word(CellType.OBSTACLE, word) | gridModel.word(CellType.IMAGE, word);
+    }
+
+
+    private static long obstacleWord(GridModel gridModel, int word) {
+        return gridModel.word(CellType.OBSTACLE, word) | gridModel.word(CellType.IMAGE, word);
+    }
+
+
+    private static int appendByte(char[] hex, int length, int value) {
+
+        if (length == 0 && value == 0)
+            return 0;
+
+        hex[length] = HEX_DIGITS[value >>> 4];
+
+        hex[length + 1] = HEX_DIGITS[value & 15];
+
+        return length + 2;
+    }
+}
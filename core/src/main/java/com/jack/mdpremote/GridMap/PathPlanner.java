@@ -0,0 +1,335 @@
+package com.jack.mdpremote.GridMap;
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+public class PathPlanner {
+
+    public static final int UP = 0, RIGHT = 1, DOWN = 2, LEFT = 3;
+
+    private static final int HEADINGS = 4;
+
+    private static final int STATE_COUNT = 2 * GridModel.CELL_COUNT * HEADINGS;
+
+    private static final int[] COLUMN_STEP = new int[]{0, 1, 0, -1};
+
+    private static final int[] ROW_STEP = new int[]{-1, 0, 1, 0};
+
+    private final int forwardCost;
+
+    private final int turnCost;
+
+    private final int[] gScores = new int[STATE_COUNT];
+
+    private final int[] parents = new int[STATE_COUNT];
+
+    private final int[] heap = new int[STATE_COUNT * 3 + 1];
+
+    private final int[] heapScores = new int[STATE_COUNT * 3 + 1];
+
+    private int heapSize;
+
+
+    public PathPlanner() {
+        this(1, 2);
+    }
+
+
+    public PathPlanner(int forwardCost, int turnCost) {
+
+        this.forwardCost = forwardCost;
+
+        this.turnCost = turnCost;
+    }
+
+
+    public static int heading(String facing) {
+
+        switch (facing) {
+
+            case "up":
+                return UP;
+
+            case "right":
+                return RIGHT;
+
+            case "down":
+                return DOWN;
+
+            case "left":
+                return LEFT;
+
+            default:
+                return -1;
+        }
+    }
+
+
+    public Path plan(GridModel model, int startColumn, int startRow, int startHeading, int waypointColumn, int waypointRow, int goalColumn, int goalRow) {
+
+        if (!model.canStand(startColumn, startRow) || !model.canStand(goalColumn, goalRow) || startHeading < 0 || startHeading >= HEADINGS)
+            return null;
+
+        boolean hasWaypoint = model.canStand(waypointColumn, waypointRow);
+
+        int waypoint = hasWaypoint ? GridModel.index(waypointColumn, waypointRow) : -1;
+
+        int goal = GridModel.index(goalColumn, goalRow);
+
+        for (int i = 0; i < STATE_COUNT; i++)
+            gScores[i] = Integer.MAX_VALUE;
+
+        heapSize = 0;
+
+        int startCell = GridModel.index(startColumn, startRow);
+
+        int start = state(startCell == waypoint || !hasWaypoint ? 1 : 0, startCell, startHeading);
+
+        gScores[start] = 0;
+
+        parents[start] = -1;
+
+        this.push(start, this.stateEstimate(start, waypoint, goal));
+
+        while (heapSize > 0) {
+
+            int f = heapScores[0];
+
+            int current = this.pop();
+
+            int g = gScores[current];
+
+            if (f > g + this.stateEstimate(current, waypoint, goal))
+                continue;
+
+            int phase = current / (GridModel.CELL_COUNT * HEADINGS);
+
+            int cell = (current / HEADINGS) % GridModel.CELL_COUNT;
+
+            int heading = current % HEADINGS;
+
+            if (phase == 1 && cell == goal)
+                return this.buildPath(current, g);
+
+            this.relax(current, state(phase, cell, (heading + 1) % HEADINGS), g + turnCost, waypoint, goal);
+
+            this.relax(current, state(phase, cell, (heading + 3) % HEADINGS), g + turnCost, waypoint, goal);
+
+            int column = GridModel.column(cell) + COLUMN_STEP[heading];
+
+            int row = GridModel.row(cell) + ROW_STEP[heading];
+
+            if (model.canStand(column, row)) {
+
+                int next = GridModel.index(column, row);
+
+                this.relax(current, state(next == waypoint ? 1 : phase, next, heading), g + forwardCost, waypoint, goal);
+            }
+        }
+
+        return null;
+    }
+
+
+    private void relax(int from, int to, int g, int waypoint, int goal) {
+
+        if (g >= gScores[to])
+            return;
+
+        gScores[to] = g;
+
+        parents[to] = from;
+
+        this.push(to, g + this.stateEstimate(to, waypoint, goal));
+    }
+
+
+    private int stateEstimate(int state, int waypoint, int goal) {
+
+        int phase = state / (GridModel.CELL_COUNT * HEADINGS);
+
+        int cell = (state / HEADINGS) % GridModel.CELL_COUNT;
+
+        int heading = state % HEADINGS;
+
+        if (phase == 1)
+            return this.estimate(cell, heading, goal);
+
+        return this.estimate(cell, heading, waypoint) + this.distance(waypoint, goal);
+    }
+
+
+    private int estimate(int cell, int heading, int target) {
+        return this.distance(cell, target) + this.turnsBetween(heading, cell, target) * turnCost;
+    }
+
+
+    private int distance(int cell, int target) {
+        return (Math.abs(GridModel.column(target) - GridModel.column(cell)) + Math.abs(GridModel.row(target) - GridModel.row(cell))) * forwardCost;
+    }
+
+
+    private int turnsBetween(int heading, int cell, int target) {
+
+        int columnDelta = GridModel.column(target) - GridModel.column(cell);
+
+        int rowDelta = GridModel.row(target) - GridModel.row(cell);
+
+        int horizontal = columnDelta > 0 ? RIGHT : columnDelta < 0 ? LEFT : -1;
+
+        int vertical = rowDelta < 0 ? UP : rowDelta > 0 ? DOWN : -1;
+
+        if (horizontal < 0 && vertical < 0)
+            return 0;
+
+        if (horizontal >= 0 && vertical >= 0)
+            return heading == horizontal || heading == vertical ? 1 : 2;
+
+        int needed = horizontal >= 0 ? horizontal : vertical;
+
+        if (heading == needed)
+            return 0;
+
+        return (heading + 2) % HEADINGS == needed ? 2 : 1;
+    }
+
+
+    private Path buildPath(int goalState, int cost) {
+
+        int length = 0;
+
+        for (int s = goalState; s >= 0; s = parents[s])
+            length++;
+
+        int[] states = new int[length];
+
+        for (int s = goalState, i = length - 1; s >= 0; s = parents[s], i--)
+            states[i] = s % (GridModel.CELL_COUNT * HEADINGS);
+
+        return new Path(states, cost);
+    }
+
+
+    private static int state(int phase, int cell, int heading) {
+        return (phase * GridModel.CELL_COUNT + cell) * HEADINGS + heading;
+    }
+
+
+    private void push(int state, int score) {
+
+        int i = heapSize++;
+
+        while (i > 0) {
+
+            int parent = (i - 1) >>> 1;
+
+            if (heapScores[parent] <= score)
+                break;
+
+            heap[i] = heap[parent];
+
+            heapScores[i] = heapScores[parent];
+
+            i = parent;
+        }
+
+        heap[i] = state;
+
+        heapScores[i] = score;
+    }
+
+
+    private int pop() {
+
+        int top = heap[0];
+
+        int last = heap[--heapSize];
+
+        int lastScore = heapScores[heapSize];
+
+        int i = 0;
+
+        while (true) {
+
+            int child = 2 * i + 1;
+
+            if (child >= heapSize)
+                break;
+
+            if (child + 1 < heapSize && heapScores[child + 1] < heapScores[child])
+                child++;
+
+            if (heapScores[child] >= lastScore)
+                break;
+
+            heap[i] = heap[child];
+
+            heapScores[i] = heapScores[child];
+
+            i = child;
+        }
+
+        heap[i] = last;
+
+        heapScores[i] = lastScore;
+
+        return top;
+    }
+
+
+    public static class Path {
+
+        private final int[] states;
+
+        private final int cost;
+
+
+        private Path(int[] states, int cost) {
+
+            this.states = states;
+
+            this.cost = cost;
+        }
+
+
+        public int length() {
+            return states.length;
+        }
+
+
+        public int getCost() {
+            return cost;
+        }
+
+
+        public int getCell(int i) {
+            return states[i] / HEADINGS;
+        }
+
+
+        public int getHeading(int i) {
+            return states[i] % HEADINGS;
+        }
+
+
+        public List<String> getCommands() {
+
+            List<String> commands = new ArrayList<>();
+
+            for (int i = 1; i < states.length; i++) {
+
+                int turn = (this.getHeading(i) - this.getHeading(i - 1) + HEADINGS) % HEADINGS;
+
+                if (turn == 1)
+                    commands.add("right");
+                else if (turn == 3)
+                    commands.add("left");
+                else
+                    commands.add("forward");
+            }
+
+            return commands;
+        }
+    }
+}
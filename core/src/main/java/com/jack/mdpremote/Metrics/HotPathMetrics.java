@@ -0,0 +1,64 @@
+package com.jack.mdpremote.Metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+
+public final class HotPathMetrics {
+
+    public static final int BYTES_IN = 0, BYTES_OUT = 1, FRAMES_DECODED = 2, FRAMES_DROPPED = 3, RECONNECTS = 4, DECODE_QUEUE_DEPTH = 5, APPLY_QUEUE_DEPTH = 6, MAP_UPDATES = 7, MAP_APPLIES = 8, COMMANDS_DISCARDED = 9;
+
+    public static final int COUNTER_COUNT = 10;
+
+    public static final int DECODE = 0, APPLY = 1, DRAW = 2;
+
+    public static final int TIMER_COUNT = 3;
+
+    private static final AtomicLongArray counters = new AtomicLongArray(COUNTER_COUNT);
+
+    private static final LatencyHistogram[] timers = new LatencyHistogram[]{new LatencyHistogram(), new LatencyHistogram(), new LatencyHistogram()};
+
+
+    private HotPathMetrics() {
+    }
+
+
+    public static void add(int counter, long delta) {
+        counters.addAndGet(counter, delta);
+    }
+
+
+    public static void increment(int counter) {
+        counters.incrementAndGet(counter);
+    }
+
+
+    public static void decrement(int counter) {
+        counters.decrementAndGet(counter);
+    }
+
+
+    public static long get(int counter) {
+        return counters.get(counter);
+    }
+
+
+    public static void recordNanos(int timer, long nanos) {
+        timers[timer].recordNanos(nanos);
+    }
+
+
+    public static LatencyHistogram timer(int timer) {
+        return timers[timer];
+    }
+
+
+    public static void reset() {
+
+        for (int i = 0; i < COUNTER_COUNT; i++)
+            if (i != DECODE_QUEUE_DEPTH && i != APPLY_QUEUE_DEPTH)
+                counters.set(i, 0);
+
+        for (LatencyHistogram timer : timers)
+            timer.reset();
+    }
+}
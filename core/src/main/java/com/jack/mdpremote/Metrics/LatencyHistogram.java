@@ -0,0 +1,125 @@
+package com.jack.mdpremote.Metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+
+public class LatencyHistogram {
+
+    private static final int LINEAR_BUCKETS = 16;
+
+    private static final int SUB_BUCKET_BITS = 3;
+
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private static final int MAX_EXPONENT = 40;
+
+    public static final int BUCKET_COUNT = LINEAR_BUCKETS + (MAX_EXPONENT - 3) * SUB_BUCKETS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+
+    private final AtomicLong count = new AtomicLong();
+
+    private final AtomicLong totalMicros = new AtomicLong();
+
+    private final AtomicLong maxMicros = new AtomicLong();
+
+
+    public void recordNanos(long nanos) {
+
+        long micros = Math.max(0, nanos / 1000);
+
+        buckets.incrementAndGet(bucketOf(micros));
+
+        count.incrementAndGet();
+
+        totalMicros.addAndGet(micros);
+
+        long max = maxMicros.get();
+
+        while (micros > max && !maxMicros.compareAndSet(max, micros))
+            max = maxMicros.get();
+    }
+
+
+    public long getCount() {
+        return count.get();
+    }
+
+
+    public long getTotalMicros() {
+        return totalMicros.get();
+    }
+
+
+    public long getMaxMicros() {
+        return maxMicros.get();
+    }
+
+
+    public void copyBuckets(long[] target) {
+
+        for (int i = 0; i < BUCKET_COUNT; i++)
+            target[i] = buckets.get(i);
+    }
+
+
+    public void reset() {
+
+        for (int i = 0; i < BUCKET_COUNT; i++)
+            buckets.set(i, 0);
+
+        count.set(0);
+
+        totalMicros.set(0);
+
+        maxMicros.set(0);
+    }
+
+
+    static int bucketOf(long micros) {
+
+        if (micros < LINEAR_BUCKETS)
+            return (int) micros;
+
+        int exponent = Math.min(63 - Long.numberOfLeadingZeros(micros), MAX_EXPONENT);
+
+        int subBucket = (int) (micros >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+
+        return Math.min(BUCKET_COUNT - 1, LINEAR_BUCKETS + (exponent - 4) * SUB_BUCKETS + subBucket);
+    }
+
+
+    static long upperBoundMicros(int bucket) {
+
+        if (bucket < LINEAR_BUCKETS)
+            return bucket;
+
+        int exponent = 4 + (bucket - LINEAR_BUCKETS) / SUB_BUCKETS;
+
+        int subBucket = (bucket - LINEAR_BUCKETS) % SUB_BUCKETS;
+
+        return ((long) (SUB_BUCKETS + subBucket + 1) << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+
+
+    public static long percentileMicros(long[] buckets, long count, double percentile) {
+
+        if (count <= 0)
+            return 0;
+
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+
+        long seen = 0;
+
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+
+            seen += buckets[i];
+
+            if (seen >= rank)
+                return upperBoundMicros(i);
+        }
+
+        return upperBoundMicros(BUCKET_COUNT - 1);
+    }
+}
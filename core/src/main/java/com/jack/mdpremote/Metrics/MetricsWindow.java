@@ -0,0 +1,73 @@
+package com.jack.mdpremote.Metrics;
+
+
+public class MetricsWindow {
+
+    private final long[] previousCounters = new long[HotPathMetrics.COUNTER_COUNT];
+
+    private final long[] rates = new long[HotPathMetrics.COUNTER_COUNT];
+
+    private final long[][] previousBuckets = new long[HotPathMetrics.TIMER_COUNT][LatencyHistogram.BUCKET_COUNT];
+
+    private final long[][] windowBuckets = new long[HotPathMetrics.TIMER_COUNT][LatencyHistogram.BUCKET_COUNT];
+
+    private final long[] windowCounts = new long[HotPathMetrics.TIMER_COUNT];
+
+    private long previousNanos = -1;
+
+
+    public void roll(long nowNanos) {
+
+        long elapsedNanos = previousNanos < 0 ? 0 : nowNanos - previousNanos;
+
+        for (int i = 0; i < HotPathMetrics.COUNTER_COUNT; i++) {
+
+            long value = HotPathMetrics.get(i);
+
+            rates[i] = elapsedNanos > 0 ? (value - previousCounters[i]) * 1000000000L / elapsedNanos : 0;
+
+            previousCounters[i] = value;
+        }
+
+        for (int i = 0; i < HotPathMetrics.TIMER_COUNT; i++) {
+
+            long[] current = windowBuckets[i];
+
+            long[] previous = previousBuckets[i];
+
+            HotPathMetrics.timer(i).copyBuckets(current);
+
+            long count = 0;
+
+            for (int j = 0; j < LatencyHistogram.BUCKET_COUNT; j++) {
+
+                long bucket = current[j];
+
+                current[j] = Math.max(0, bucket - previous[j]);
+
+                previous[j] = bucket;
+
+                count += current[j];
+            }
+
+            windowCounts[i] = count;
+        }
+
+        previousNanos = nowNanos;
+    }
+
+
+    public long getRate(int counter) {
+        return rates[counter];
+    }
+
+
+    public long getWindowCount(int timer) {
+        return windowCounts[timer];
+    }
+
+
+    public long getPercentileMicros(int timer, double percentile) {
+        return LatencyHistogram.percentileMicros(windowBuckets[timer], windowCounts[timer], percentile);
+    }
+}
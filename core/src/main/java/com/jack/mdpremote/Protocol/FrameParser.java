@@ -0,0 +1,118 @@
+package com.jack.mdpremote.Protocol;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+
+public final class FrameParser {
+
+    private static final int MAP_FRAME_LENGTH = 158;
+
+
+    private FrameParser() {
+    }
+
+
+    public static MapUpdate parse(String frame) {
+
+        if (frame.length() == MAP_FRAME_LENGTH && frame.startsWith("B4:")) {
+
+            MapFrame mapFrame = new MapFrame(parseDecimal(frame, 3, 5), parseDecimal(frame, 5, 7), robotFacing(frame.substring(7, 8)), frame.substring(8));
+
+            return new MapUpdate(frame, mapFrame, null);
+
+        } else if (frame.startsWith("B5:")) {
+
+            int indexOfImage = frame.indexOf("|");
+
+            if (indexOfImage == -1)
+                return new MapUpdate(frame.substring(3), null, null);
+
+            return new MapUpdate(frame.substring(3, indexOfImage), null, new ImageFrame(frame.substring(indexOfImage + 1)));
+        }
+
+        try {
+
+            return parseJson(new JSONObject(frame));
+
+        } catch (JSONException e) {
+
+            return new MapUpdate(null, null, null);
+
+        }
+    }
+
+
+    private static MapUpdate parseJson(JSONObject payload) throws JSONException {
+
+        MapFrame mapFrame = null;
+
+        ImageFrame imageFrame = null;
+
+        JSONArray mapArray = payload.optJSONArray("map");
+
+        if (mapArray != null && mapArray.length() > 0) {
+
+            JSONObject map = mapArray.getJSONObject(0);
+
+            String robotFacing = map.has("robotFacing") ? robotFacing(map.getString("robotFacing")) : null;
+
+            mapFrame = new MapFrame(map.optInt("robotX", -1), map.optInt("robotY", -1), robotFacing, map.optString("explored", null));
+        }
+
+        JSONArray imageArray = payload.optJSONArray("image");
+
+        if (imageArray != null) {
+
+            StringBuilder imageString = new StringBuilder();
+
+            for (int i = 0; i < imageArray.length(); i++)
+                imageString.append(imageArray.getJSONObject(i).getString("imageString"));
+
+            imageFrame = new ImageFrame(imageString.toString());
+        }
+
+        return new MapUpdate(null, mapFrame, imageFrame);
+    }
+
+
+    private static int parseDecimal(String frame, int start, int end) {
+
+        int value = 0;
+
+        for (int i = start; i < end; i++) {
+
+            char c = frame.charAt(i);
+
+            if (c < '0' || c > '9')
+                return -1;
+
+            value = value * 10 + (c - '0');
+        }
+
+        return value;
+    }
+
+
+    private static String robotFacing(String direction) {
+
+        switch (direction) {
+
+            case "0":
+                return "up";
+
+            case "1":
+                return "down";
+
+            case "2":
+                return "right";
+
+            case "3":
+                return "left";
+
+            default:
+                return direction;
+        }
+    }
+}
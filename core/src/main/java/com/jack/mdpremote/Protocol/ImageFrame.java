@@ -0,0 +1,17 @@
+package com.jack.mdpremote.Protocol;
+
+
+public final class ImageFrame {
+
+    private final String imageString;
+
+
+    ImageFrame(String imageString) {
+        this.imageString = imageString;
+    }
+
+
+    public String getImageString() {
+        return imageString;
+    }
+}
@@ -0,0 +1,90 @@
+package com.jack.mdpremote.Protocol;
+
+import com.jack.mdpremote.GridMap.MapDescriptor;
+
+
+public final class ImageRecordCursor {
+
+    public static final int RECORD_LENGTH = 5;
+
+    private CharSequence source;
+
+    private int position;
+
+    private int x;
+
+    private int y;
+
+    private int type;
+
+
+    public ImageRecordCursor reset(CharSequence source) {
+
+        this.source = source;
+
+        this.position = 0;
+
+        return this;
+    }
+
+
+    public boolean next() {
+
+        if (source == null)
+            return false;
+
+        while (position + RECORD_LENGTH <= source.length()) {
+
+            int start = position;
+
+            position += RECORD_LENGTH;
+
+            int x = this.decimal(start);
+
+            int y = this.decimal(start + 2);
+
+            int type = MapDescriptor.hexValue(source.charAt(start + 4));
+
+            if (x >= 0 && y >= 0 && type >= 0) {
+
+                this.x = x;
+
+                this.y = y;
+
+                this.type = type;
+
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+
+    public int getX() {
+        return x;
+    }
+
+
+    public int getY() {
+        return y;
+    }
+
+
+    public int getType() {
+        return type;
+    }
+
+
+    private int decimal(int start) {
+
+        char tens = source.charAt(start);
+
+        char ones = source.charAt(start + 1);
+
+        if (tens < '0' || tens > '9' || ones < '0' || ones > '9')
+            return -1;
+
+        return (tens - '0') * 10 + (ones - '0');
+    }
+}
@@ -0,0 +1,51 @@
+package com.jack.mdpremote.Protocol;
+
+
+public final class MapFrame {
+
+    private final int robotX;
+
+    private final int robotY;
+
+    private final String robotFacing;
+
+    private final String explored;
+
+
+    MapFrame(int robotX, int robotY, String robotFacing, String explored) {
+
+        this.robotX = robotX;
+
+        this.robotY = robotY;
+
+        this.robotFacing = robotFacing;
+
+        this.explored = explored;
+
+    }
+
+
+    public boolean hasRobot() {
+        return robotX >= 0 && robotY >= 0 && robotFacing != null;
+    }
+
+
+    public int getRobotX() {
+        return robotX;
+    }
+
+
+    public int getRobotY() {
+        return robotY;
+    }
+
+
+    public String getRobotFacing() {
+        return robotFacing;
+    }
+
+
+    public String getExplored() {
+        return explored;
+    }
+}
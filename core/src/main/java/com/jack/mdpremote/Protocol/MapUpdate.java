@@ -0,0 +1,42 @@
+package com.jack.mdpremote.Protocol;
+
+
+public final class MapUpdate {
+
+    private final String logText;
+
+    private final MapFrame mapFrame;
+
+    private final ImageFrame imageFrame;
+
+
+    MapUpdate(String logText, MapFrame mapFrame, ImageFrame imageFrame) {
+
+        this.logText = logText;
+
+        this.mapFrame = mapFrame;
+
+        this.imageFrame = imageFrame;
+
+    }
+
+
+    public boolean hasFrames() {
+        return mapFrame != null || imageFrame != null;
+    }
+
+
+    public String getLogText() {
+        return logText;
+    }
+
+
+    public MapFrame getMapFrame() {
+        return mapFrame;
+    }
+
+
+    public ImageFrame getImageFrame() {
+        return imageFrame;
+    }
+}
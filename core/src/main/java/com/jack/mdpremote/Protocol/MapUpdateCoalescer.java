@@ -0,0 +1,137 @@
+package com.jack.mdpremote.Protocol;
+
+import java.util.Arrays;
+
+
+public class MapUpdateCoalescer {
+
+    private final ImageRecordCursor imageRecordCursor = new ImageRecordCursor();
+
+    private int[] imageRecords = new int[16];
+
+    private int imageRecordCount = 0;
+
+    private int pendingCount = 0;
+
+    private boolean hasRobot = false;
+
+    private int robotX;
+
+    private int robotY;
+
+    private String robotFacing;
+
+    private String explored;
+
+
+    public void offer(MapUpdate mapUpdate) {
+
+        if (mapUpdate == null)
+            return;
+
+        MapFrame mapFrame = mapUpdate.getMapFrame();
+
+        if (mapFrame != null) {
+
+            if (mapFrame.hasRobot()) {
+
+                hasRobot = true;
+
+                robotX = mapFrame.getRobotX();
+
+                robotY = mapFrame.getRobotY();
+
+                robotFacing = mapFrame.getRobotFacing();
+            }
+
+            if (mapFrame.getExplored() != null)
+                explored = mapFrame.getExplored();
+        }
+
+        if (mapUpdate.getImageFrame() != null) {
+
+            ImageRecordCursor cursor = imageRecordCursor.reset(mapUpdate.getImageFrame().getImageString());
+
+            while (cursor.next()) {
+
+                if (imageRecordCount == imageRecords.length)
+                    imageRecords = Arrays.copyOf(imageRecords, imageRecordCount * 2);
+
+                imageRecords[imageRecordCount++] = cursor.getX() << 16 | cursor.getY() << 8 | cursor.getType();
+            }
+
+            cursor.reset(null);
+        }
+
+        pendingCount++;
+    }
+
+
+    public boolean isEmpty() {
+        return pendingCount == 0;
+    }
+
+
+    public int getPendingCount() {
+        return pendingCount;
+    }
+
+
+    public boolean hasRobot() {
+        return hasRobot;
+    }
+
+
+    public int getRobotX() {
+        return robotX;
+    }
+
+
+    public int getRobotY() {
+        return robotY;
+    }
+
+
+    public String getRobotFacing() {
+        return robotFacing;
+    }
+
+
+    public String getExplored() {
+        return explored;
+    }
+
+
+    public int getImageRecordCount() {
+        return imageRecordCount;
+    }
+
+
+    public int getImageX(int position) {
+        return imageRecords[position] >>> 16;
+    }
+
+
+    public int getImageY(int position) {
+        return imageRecords[position] >>> 8 & 0xFF;
+    }
+
+
+    public int getImageType(int position) {
+        return imageRecords[position] & 0xFF;
+    }
+
+
+    public void clear() {
+
+        imageRecordCount = 0;
+
+        pendingCount = 0;
+
+        hasRobot = false;
+
+        robotFacing = null;
+
+        explored = null;
+    }
+}
@@ -0,0 +1,153 @@
+package com.jack.mdpremote.Bluetooth;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+
+public class FrameAssemblerTest {
+
+    private static final String MAP_FRAME = "B4:01020" + new String(new char[150]).replace('\0', 'f');
+
+    private static final String IMAGE_FRAME = "B5:Image seen|0512105x3A14193";
+
+    private final List<String> frames = new ArrayList<>();
+
+    private FrameAssembler frameAssembler;
+
+
+    @Before
+    public void setUp() {
+
+        frameAssembler = new FrameAssembler(new FrameAssembler.Listener() {
+            @Override
+            public void onFrame(String frame) {
+                frames.add(frame);
+            }
+        });
+    }
+
+
+    private void feed(String data, int fragmentLength) {
+
+        byte[] bytes = data.getBytes(Charset.defaultCharset());
+
+        for (int offset = 0; offset < bytes.length; offset += fragmentLength) {
+
+            frameAssembler.append(bytes, offset, Math.min(fragmentLength, bytes.length - offset));
+
+            frameAssembler.flushIfIdle();
+        }
+    }
+
+
+    @Test
+    public void mapFrameCompletesByLength() {
+
+        assertEquals(158, MAP_FRAME.length());
+
+        this.feed(MAP_FRAME, 7);
+
+        assertEquals(Arrays.asList(MAP_FRAME), frames);
+    }
+
+
+    @Test
+    public void fragmentedImageFrameIsNotSplit() {
+
+        for (int fragmentLength = 1; fragmentLength < IMAGE_FRAME.length(); fragmentLength++) {
+
+            frames.clear();
+
+            frameAssembler.reset();
+
+            this.feed(IMAGE_FRAME, fragmentLength);
+
+            assertEquals(0, frames.size());
+
+            this.feed(MAP_FRAME, fragmentLength);
+
+            assertEquals(Arrays.asList(IMAGE_FRAME, MAP_FRAME), frames);
+        }
+    }
+
+
+    @Test
+    public void imageFrameEndsAtNextImageFrame() {
+
+        this.feed(IMAGE_FRAME + IMAGE_FRAME + MAP_FRAME, 4);
+
+        assertEquals(Arrays.asList(IMAGE_FRAME, IMAGE_FRAME, MAP_FRAME), frames);
+    }
+
+
+    @Test
+    public void delimitedFramesAreSplitOnNewline() {
+
+        this.feed(IMAGE_FRAME + "\r\n" + "hello\n" + MAP_FRAME + "\n", 5);
+
+        assertEquals(Arrays.asList(IMAGE_FRAME, "hello", MAP_FRAME), frames);
+    }
+
+
+    @Test
+    public void undelimitedTextIsFlushedWhenIdle() {
+
+        this.feed("{\"status\":\"ok\"}", 64);
+
+        assertEquals(Arrays.asList("{\"status\":\"ok\"}"), frames);
+    }
+
+
+    @Test
+    public void textBeforeMapFrameInOneReadIsSplitAtHeader() {
+
+        this.feed("moving" + MAP_FRAME, 256);
+
+        assertEquals(Arrays.asList("moving", MAP_FRAME), frames);
+    }
+
+
+    @Test
+    public void trailingPartialHeaderIsHeldWhenIdle() {
+
+        this.feed("movingB4", 64);
+
+        assertEquals(Arrays.asList("moving"), frames);
+
+        this.feed(MAP_FRAME.substring(2), 64);
+
+        assertEquals(Arrays.asList("moving", MAP_FRAME), frames);
+    }
+
+
+    @Test
+    public void delimiterExpectationLastsOneFrame() {
+
+        this.feed("hello\n", 64);
+
+        this.feed("{\"status\":\"ok\"}", 64);
+
+        assertEquals(Arrays.asList("hello"), frames);
+
+        this.feed(MAP_FRAME, 64);
+
+        assertEquals(Arrays.asList("hello", "{\"status\":\"ok\"}", MAP_FRAME), frames);
+
+        this.feed("stopped", 64);
+
+        assertEquals(Arrays.asList("hello", "{\"status\":\"ok\"}", MAP_FRAME, "stopped"), frames);
+
+        this.feed("moving\n" + "wait", 64);
+
+        this.feed("ing\n", 64);
+
+        assertEquals(Arrays.asList("hello", "{\"status\":\"ok\"}", MAP_FRAME, "stopped", "moving", "waiting"), frames);
+    }
+}
@@ -0,0 +1,180 @@
+package com.jack.mdpremote.Bluetooth;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+
+public class ReconnectorTest {
+
+    private final ArrayBlockingQueue<Transport> connected = new ArrayBlockingQueue<>(1);
+
+    private final Reconnector.Listener listener = new Reconnector.Listener() {
+        @Override
+        public void onConnected(Transport transport) {
+            connected.add(transport);
+        }
+    };
+
+
+    private static class FakeConnector implements TransportConnector {
+
+        private final Transport transport;
+
+        private volatile int failures;
+
+        private volatile boolean available = true;
+
+        private volatile boolean cancelled = false;
+
+
+        private FakeConnector(Transport transport, int failures) {
+
+            this.transport = transport;
+
+            this.failures = failures;
+        }
+
+
+        @Override
+        public boolean isAvailable() {
+            return available;
+        }
+
+
+        @Override
+        public Transport connect() throws IOException {
+
+            if (failures > 0) {
+
+                failures--;
+
+                throw new IOException("Connection refused");
+            }
+
+            return transport;
+        }
+
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+    }
+
+
+    @Test
+    public void retriesUntilConnected() throws InterruptedException {
+
+        Transport transport = LoopbackTransport.pair(new LinkConditions(), new LinkConditions())[0];
+
+        Reconnector reconnector = new Reconnector(new FakeConnector(transport, 2), 1, listener);
+
+        reconnector.start();
+
+        assertSame(transport, connected.poll(5, TimeUnit.SECONDS));
+
+        reconnector.join(5000);
+
+        assertFalse(reconnector.isAlive());
+
+        assertEquals(3, reconnector.getAttemptCount());
+    }
+
+
+    @Test
+    public void cancelStopsRetrying() throws InterruptedException {
+
+        FakeConnector connector = new FakeConnector(null, Integer.MAX_VALUE);
+
+        Reconnector reconnector = new Reconnector(connector, 60000, listener);
+
+        reconnector.start();
+
+        while (reconnector.getAttemptCount() == 0)
+            Thread.sleep(1);
+
+        reconnector.cancel();
+
+        reconnector.join(5000);
+
+        assertFalse(reconnector.isAlive());
+
+        assertTrue(connector.cancelled);
+
+        assertEquals(1, reconnector.getAttemptCount());
+
+        assertNull(connected.poll());
+    }
+
+
+    @Test
+    public void unavailableConnectorIsNotTried() throws InterruptedException {
+
+        FakeConnector connector = new FakeConnector(null, 0);
+
+        connector.available = false;
+
+        Reconnector reconnector = new Reconnector(connector, 1, listener);
+
+        reconnector.start();
+
+        reconnector.join(5000);
+
+        assertEquals(0, reconnector.getAttemptCount());
+
+        assertNull(connected.poll());
+    }
+
+
+    @Test
+    public void reconnectsOverSocketTransport() throws IOException, InterruptedException {
+
+        final ServerSocket serverSocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+
+        TransportConnector connector = new TransportConnector() {
+            @Override
+            public boolean isAvailable() {
+                return true;
+            }
+
+            @Override
+            public Transport connect() throws IOException {
+                return SocketTransport.connect(serverSocket.getInetAddress().getHostAddress(), serverSocket.getLocalPort(), 3000);
+            }
+
+            @Override
+            public void cancel() {
+            }
+        };
+
+        Reconnector reconnector = new Reconnector(connector, 1, listener);
+
+        reconnector.start();
+
+        Socket peer = serverSocket.accept();
+
+        Transport transport = connected.poll(5, TimeUnit.SECONDS);
+
+        peer.getOutputStream().write('B');
+
+        assertEquals('B', transport.getInputStream().read());
+
+        transport.close();
+
+        peer.close();
+
+        serverSocket.close();
+    }
+}
@@ -0,0 +1,110 @@
+package com.jack.mdpremote.GridMap;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+
+public class GridModelTest {
+
+    private static final int COLUMN = 7;
+
+    private static final int ROW = 10;
+
+
+    private static GridModel withObstacle() {
+
+        GridModel gridModel = new GridModel();
+
+        gridModel.fill(CellType.EXPLORED);
+
+        gridModel.setOccupied(COLUMN, ROW, true);
+
+        gridModel.setType(COLUMN, ROW, CellType.OBSTACLE);
+
+        return gridModel;
+    }
+
+
+    @Test
+    public void obstacleBlocksFootprint() {
+
+        GridModel gridModel = withObstacle();
+
+        assertTrue(gridModel.isOccupied(COLUMN, ROW));
+
+        for (int x = COLUMN - 1; x <= COLUMN + 1; x++)
+            for (int y = ROW - 1; y <= ROW + 1; y++)
+                assertFalse(gridModel.canStand(x, y));
+    }
+
+
+    @Test
+    public void retypingAsExploredReleasesOccupancy() {
+
+        GridModel gridModel = withObstacle();
+
+        gridModel.setType(COLUMN, ROW, CellType.EXPLORED);
+
+        gridModel.setOccupied(COLUMN, ROW, false);
+
+        assertTrue(gridModel.is(COLUMN, ROW, CellType.EXPLORED));
+
+        assertFalse(gridModel.isOccupied(COLUMN, ROW));
+
+        assertEquals(0, gridModel.occupiedCount());
+
+        for (int x = COLUMN - 1; x <= COLUMN + 1; x++)
+            for (int y = ROW - 1; y <= ROW + 1; y++)
+                assertTrue(gridModel.canStand(x, y));
+    }
+
+
+    @Test
+    public void retypingAsUnexploredReleasesOccupancy() {
+
+        GridModel gridModel = withObstacle();
+
+        gridModel.setType(COLUMN, ROW, CellType.UNEXPLORED);
+
+        gridModel.setOccupied(COLUMN, ROW, false);
+
+        assertFalse(gridModel.isOccupied(COLUMN, ROW));
+
+        assertTrue(gridModel.canStand(COLUMN, ROW));
+    }
+
+
+    @Test
+    public void retypingAloneKeepsOccupancy() {
+
+        GridModel gridModel = withObstacle();
+
+        gridModel.setType(COLUMN, ROW, CellType.EXPLORED);
+
+        assertTrue(gridModel.isOccupied(COLUMN, ROW));
+
+        assertFalse(gridModel.canStand(COLUMN, ROW));
+    }
+
+
+    @Test
+    public void descriptorClearsOccupancyOfExploredCells() {
+
+        GridModel gridModel = withObstacle();
+
+        byte[] cellStates = new byte[MapDescriptor.CELL_COUNT];
+
+        Arrays.fill(cellStates, MapDescriptor.EXPLORED);
+
+        gridModel.applyDescriptor(cellStates, cellStates.length);
+
+        assertFalse(gridModel.isOccupied(COLUMN, ROW));
+
+        assertTrue(gridModel.canStand(COLUMN, ROW));
+    }
+}
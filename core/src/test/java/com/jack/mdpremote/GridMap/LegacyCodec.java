@@ -0,0 +1,129 @@
+package com.jack.mdpremote.GridMap;
+
+import java.math.BigInteger;
+
+
+public final class LegacyCodec {
+
+    private LegacyCodec() {
+    }
+
+
+    public static int decodeExplored(String hex, byte[] cellStates) {
+
+        String explored = "F" + hex;
+
+        explored = new BigInteger(explored, 16).toString(2);
+
+        explored = explored.substring(4);
+
+        for (int j = 0; j < explored.length(); j += 2) {
+
+            if ((String.valueOf(explored.charAt(j))).equals("1"))
+                cellStates[j / 2] = MapDescriptor.EXPLORED;
+
+            else if ((String.valueOf(explored.charAt(j + 1))).equals("1"))
+                cellStates[j / 2] = MapDescriptor.OBSTACLE;
+
+            else
+                cellStates[j / 2] = MapDescriptor.UNEXPLORED;
+        }
+
+        return explored.length() / 2;
+    }
+
+
+    public static String encodeExplored(GridModel gridModel) {
+
+        String explored = "11";
+
+        for (int i = 0; i < GridModel.CELL_COUNT; i++) {
+            switch (gridModel.getType(i)) {
+                case EXPLORED:
+                case ROBOT:
+                case OBSTACLE:
+                case IMAGE:
+                    explored = explored + "1";
+                    break;
+                default:
+                    explored = explored + "0";
+                    break;
+            }
+        }
+
+        explored = explored + "11";
+
+        return new BigInteger(explored, 2).toString(16);
+    }
+
+
+    public static String encodeObstacle(GridModel gridModel) {
+
+        String obstacle = "";
+
+        String hex = "";
+
+        for (int i = 0; i < GridModel.CELL_COUNT; i++) {
+
+            switch (gridModel.getType(i)) {
+
+                case EXPLORED:
+                case ROBOT:
+                    obstacle = obstacle + "0";
+                    break;
+
+                case OBSTACLE:
+                case IMAGE:
+                    obstacle = obstacle + "1";
+                    break;
+
+                default:
+                    break;
+            }
+        }
+
+        while ((obstacle.length() % 8) != 0)
+            obstacle = obstacle + "0";
+
+        if (!obstacle.equals("")) {
+
+            hex = new BigInteger(obstacle, 2).toString(16);
+
+            if (hex.length() % 2 != 0)
+                hex = "0" + hex;
+        }
+
+        return hex;
+    }
+
+
+    public static int parseImageString(String imageString, int[] images) {
+
+        int count = 0;
+
+        while (imageString.length() >= 5) {
+
+            String nextChunk = imageString.substring(0, 5);
+
+            String imageX = nextChunk.substring(0, 2);
+
+            String imageY = nextChunk.substring(2, 4);
+
+            String imageType = nextChunk.substring(4);
+
+            try {
+
+                images[count++] = (Integer.parseInt(imageX) << 16) | (Integer.parseInt(imageY) << 8) | Integer.parseInt(imageType, 16);
+
+            } catch (NumberFormatException e) {
+
+                count--;
+
+            }
+
+            imageString = imageString.substring(5);
+        }
+
+        return count;
+    }
+}
@@ -0,0 +1,184 @@
+package com.jack.mdpremote.GridMap;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+
+public class MapDescriptorExportTest {
+
+    private static final CellType[] TYPES = new CellType[]{CellType.UNEXPLORED, CellType.EXPLORED, CellType.OBSTACLE, CellType.ROBOT, CellType.IMAGE, CellType.START, CellType.END, CellType.WAYPOINT};
+
+    private final char[] hex = new char[Math.max(MapDescriptor.EXPORT_HEX_LENGTH, MapDescriptor.OBSTACLE_HEX_CAPACITY)];
+
+
+    private String exploredHex(GridModel gridModel) {
+        return new String(hex, 0, MapDescriptor.encodeExplored(gridModel, hex));
+    }
+
+
+    private String obstacleHex(GridModel gridModel) {
+        return new String(hex, 0, MapDescriptor.encodeObstacle(gridModel, hex));
+    }
+
+
+    private void assertExportsLikeLegacy(GridModel gridModel) {
+
+        String explored = this.exploredHex(gridModel);
+
+        String obstacle = this.obstacleHex(gridModel);
+
+        assertEquals(LegacyCodec.encodeExplored(gridModel), explored);
+
+        assertEquals(LegacyCodec.encodeObstacle(gridModel), obstacle);
+
+        byte[] expected = new byte[MapDescriptor.CELL_COUNT];
+
+        for (int i = 0; i < expected.length; i++) {
+
+            switch (gridModel.getType(i)) {
+
+                case EXPLORED:
+                case ROBOT:
+                    expected[i] = MapDescriptor.EXPLORED;
+                    break;
+
+                case OBSTACLE:
+                case IMAGE:
+                    expected[i] = MapDescriptor.OBSTACLE;
+                    break;
+
+                default:
+                    expected[i] = MapDescriptor.UNEXPLORED;
+                    break;
+            }
+        }
+
+        byte[] decoded = new byte[MapDescriptor.CELL_COUNT];
+
+        assertEquals(MapDescriptor.CELL_COUNT, MapDescriptor.decodeExport(explored, obstacle, decoded));
+
+        assertArrayEquals(expected, decoded);
+    }
+
+
+    @Test
+    public void randomMapsMatchBigIntegerExport() {
+
+        Random random = new Random(6);
+
+        for (int i = 0; i < 2000; i++) {
+
+            GridModel gridModel = new GridModel();
+
+            int density = 1 + random.nextInt(8);
+
+            for (int cell = 0; cell < GridModel.CELL_COUNT; cell++)
+                if (random.nextInt(8) < density)
+                    gridModel.setType(cell, TYPES[random.nextInt(TYPES.length)]);
+
+            this.assertExportsLikeLegacy(gridModel);
+        }
+    }
+
+
+    @Test
+    public void exploredHexIsPaddedWithOnes() {
+
+        GridModel gridModel = new GridModel();
+
+        String explored = this.exploredHex(gridModel);
+
+        assertEquals(MapDescriptor.EXPORT_HEX_LENGTH, explored.length());
+
+        assertEquals('c', explored.charAt(0));
+
+        assertEquals('3', explored.charAt(explored.length() - 1));
+
+        gridModel.fill(CellType.EXPLORED);
+
+        assertEquals(new String(new char[MapDescriptor.EXPORT_HEX_LENGTH]).replace('\0', 'f'), this.exploredHex(gridModel));
+
+        this.assertExportsLikeLegacy(gridModel);
+    }
+
+
+    @Test
+    public void unexploredMapHasNoObstacleHex() {
+
+        GridModel gridModel = new GridModel();
+
+        assertEquals("", this.obstacleHex(gridModel));
+
+        this.assertExportsLikeLegacy(gridModel);
+    }
+
+
+    @Test
+    public void freeMapExportsDoubleZero() {
+
+        GridModel gridModel = new GridModel();
+
+        for (int cell = 0; cell < 20; cell++)
+            gridModel.setType(cell, CellType.EXPLORED);
+
+        assertEquals("00", this.obstacleHex(gridModel));
+
+        gridModel.fill(CellType.EXPLORED);
+
+        assertEquals("00", this.obstacleHex(gridModel));
+
+        this.assertExportsLikeLegacy(gridModel);
+    }
+
+
+    @Test
+    public void leadingZeroBytesAreSkipped() {
+
+        GridModel gridModel = new GridModel();
+
+        for (int cell = 0; cell < 40; cell++)
+            gridModel.setType(cell, CellType.EXPLORED);
+
+        gridModel.setType(30, CellType.OBSTACLE);
+
+        assertEquals("0200", this.obstacleHex(gridModel));
+
+        gridModel.setType(39, CellType.IMAGE);
+
+        assertEquals("0201", this.obstacleHex(gridModel));
+
+        this.assertExportsLikeLegacy(gridModel);
+
+        gridModel.setType(30, CellType.EXPLORED);
+
+        gridModel.setType(24, CellType.OBSTACLE);
+
+        assertEquals("8001", this.obstacleHex(gridModel));
+
+        this.assertExportsLikeLegacy(gridModel);
+    }
+
+
+    @Test
+    public void obstacleBitsArePaddedToWholeBytes() {
+
+        GridModel gridModel = new GridModel();
+
+        for (int cell = 100; cell < 113; cell++)
+            gridModel.setType(cell, CellType.EXPLORED);
+
+        gridModel.setType(100, CellType.OBSTACLE);
+
+        gridModel.setType(112, CellType.OBSTACLE);
+
+        assertEquals(16, MapDescriptor.obstacleBitLength(gridModel));
+
+        assertEquals("8008", this.obstacleHex(gridModel));
+
+        this.assertExportsLikeLegacy(gridModel);
+    }
+}
@@ -0,0 +1,169 @@
+package com.jack.mdpremote.GridMap;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+
+public class MapDescriptorTest {
+
+    private static final char[] HEX_DIGITS = "0123456789abcdefABCDEF".toCharArray();
+
+
+    private static String randomHex(Random random, int length) {
+
+        char[] hex = new char[length];
+
+        for (int i = 0; i < length; i++)
+            hex[i] = HEX_DIGITS[random.nextInt(HEX_DIGITS.length)];
+
+        return new String(hex);
+    }
+
+
+    private static void assertDecodesLikeLegacy(String hex) {
+
+        byte[] expected = new byte[MapDescriptor.CELL_COUNT];
+
+        byte[] actual = new byte[MapDescriptor.CELL_COUNT];
+
+        int expectedCells = LegacyCodec.decodeExplored(hex, expected);
+
+        assertEquals(hex, expectedCells, MapDescriptor.decodeExplored(hex, actual));
+
+        assertArrayEquals(hex, expected, actual);
+    }
+
+
+    @Test
+    public void decodeExploredMatchesBigIntegerOnRandomMaps() {
+
+        Random random = new Random(1);
+
+        for (int i = 0; i < 2000; i++)
+            assertDecodesLikeLegacy(randomHex(random, MapDescriptor.EXPLORED_HEX_LENGTH));
+    }
+
+
+    @Test
+    public void decodeExploredIgnoresHexCase() {
+
+        Random random = new Random(2);
+
+        for (int i = 0; i < 100; i++) {
+
+            String hex = randomHex(random, MapDescriptor.EXPLORED_HEX_LENGTH);
+
+            byte[] lower = new byte[MapDescriptor.CELL_COUNT];
+
+            byte[] upper = new byte[MapDescriptor.CELL_COUNT];
+
+            MapDescriptor.decodeExplored(hex.toLowerCase(), lower);
+
+            MapDescriptor.decodeExplored(hex.toUpperCase(), upper);
+
+            assertArrayEquals(lower, upper);
+
+            assertDecodesLikeLegacy(hex.toUpperCase());
+        }
+    }
+
+
+    @Test
+    public void decodeExploredHandlesOddAndShortLengths() {
+
+        Random random = new Random(3);
+
+        for (int length = 0; length <= MapDescriptor.EXPLORED_HEX_LENGTH; length++)
+            assertDecodesLikeLegacy(randomHex(random, length));
+
+        assertEquals(150, MapDescriptor.decodeExplored(randomHex(random, 75), new byte[MapDescriptor.CELL_COUNT]));
+    }
+
+
+    @Test
+    public void decodeExploredRejectsInvalidHex() {
+
+        byte[] cellStates = new byte[MapDescriptor.CELL_COUNT];
+
+        Arrays.fill(cellStates, MapDescriptor.OBSTACLE);
+
+        byte[] untouched = cellStates.clone();
+
+        String valid = randomHex(new Random(4), MapDescriptor.EXPLORED_HEX_LENGTH);
+
+        for (String invalid : new String[]{"g" + valid.substring(1), valid.substring(0, 149) + "-", valid.substring(0, 70) + " " + valid.substring(71), valid.substring(0, 10) + "\u00e9" + valid.substring(11)}) {
+
+            assertEquals(invalid, -1, MapDescriptor.decodeExplored(invalid, cellStates));
+
+            assertArrayEquals(untouched, cellStates);
+
+            assertTrue(invalid, legacyRejects(invalid));
+        }
+    }
+
+
+    private static boolean legacyRejects(String hex) {
+
+        try {
+
+            LegacyCodec.decodeExplored(hex, new byte[MapDescriptor.CELL_COUNT]);
+
+            return false;
+
+        } catch (NumberFormatException e) {
+
+            return true;
+
+        }
+    }
+
+
+    @Test
+    public void decodeExploredEdgeMaps() {
+
+        char[] hex = new char[MapDescriptor.EXPLORED_HEX_LENGTH];
+
+        byte[] cellStates = new byte[MapDescriptor.CELL_COUNT];
+
+        byte[] expected = new byte[MapDescriptor.CELL_COUNT];
+
+        Arrays.fill(hex, '0');
+
+        assertEquals(MapDescriptor.CELL_COUNT, MapDescriptor.decodeExplored(new String(hex), cellStates));
+
+        Arrays.fill(expected, MapDescriptor.UNEXPLORED);
+
+        assertArrayEquals(expected, cellStates);
+
+        assertDecodesLikeLegacy(new String(hex));
+
+        for (char digit : new char[]{'f', 'F', 'a'}) {
+
+            Arrays.fill(hex, digit);
+
+            assertEquals(MapDescriptor.CELL_COUNT, MapDescriptor.decodeExplored(new String(hex), cellStates));
+
+            Arrays.fill(expected, MapDescriptor.EXPLORED);
+
+            assertArrayEquals(expected, cellStates);
+
+            assertDecodesLikeLegacy(new String(hex));
+        }
+
+        Arrays.fill(hex, '5');
+
+        MapDescriptor.decodeExplored(new String(hex), cellStates);
+
+        Arrays.fill(expected, MapDescriptor.OBSTACLE);
+
+        assertArrayEquals(expected, cellStates);
+
+        assertDecodesLikeLegacy(new String(hex));
+    }
+}
@@ -0,0 +1,77 @@
+package com.jack.mdpremote.GridMap;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+
+public class PathPlannerTest {
+
+    private static CellType[] types(GridModel gridModel) {
+
+        CellType[] types = new CellType[GridModel.CELL_COUNT];
+
+        for (int i = 0; i < types.length; i++)
+            types[i] = gridModel.getType(i);
+
+        return types;
+    }
+
+
+    @Test
+    public void planningLeavesTheExportUnchanged() {
+
+        GridModel gridModel = new GridModel();
+
+        Random random = new Random(5);
+
+        for (int i = 0; i < GridModel.CELL_COUNT; i++)
+            if (random.nextInt(3) > 0)
+                gridModel.setType(i, CellType.EXPLORED);
+
+        for (int[] obstacle : new int[][]{{5, 5}, {10, 12}, {8, 16}, {13, 8}}) {
+
+            int cell = GridModel.index(obstacle[0], obstacle[1]);
+
+            gridModel.setOccupied(cell, true);
+
+            gridModel.setType(cell, CellType.OBSTACLE);
+        }
+
+        char[] exploredBefore = new char[MapDescriptor.EXPORT_HEX_LENGTH];
+
+        char[] obstacleBefore = new char[MapDescriptor.OBSTACLE_HEX_CAPACITY];
+
+        int exploredLength = MapDescriptor.encodeExplored(gridModel, exploredBefore);
+
+        int obstacleLength = MapDescriptor.encodeObstacle(gridModel, obstacleBefore);
+
+        int exploredCount = gridModel.exploredCount();
+
+        CellType[] typesBefore = types(gridModel);
+
+        PathPlanner.Path path = new PathPlanner().plan(gridModel, 2, 18, PathPlanner.UP, 7, 10, 14, 1);
+
+        assertNotNull(path);
+
+        char[] exploredAfter = new char[MapDescriptor.EXPORT_HEX_LENGTH];
+
+        char[] obstacleAfter = new char[MapDescriptor.OBSTACLE_HEX_CAPACITY];
+
+        assertEquals(exploredLength, MapDescriptor.encodeExplored(gridModel, exploredAfter));
+
+        assertEquals(obstacleLength, MapDescriptor.encodeObstacle(gridModel, obstacleAfter));
+
+        assertArrayEquals(exploredBefore, exploredAfter);
+
+        assertArrayEquals(obstacleBefore, obstacleAfter);
+
+        assertEquals(exploredCount, gridModel.exploredCount());
+
+        assertArrayEquals(typesBefore, types(gridModel));
+    }
+}
@@ -0,0 +1,81 @@
+package com.jack.mdpremote.Simulator;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+
+
+public class Arena {
+
+    public static final int COLUMN = 15, ROW = 20;
+
+    private final boolean[] obstacles = new boolean[COLUMN * ROW];
+
+    private final int[] images = new int[COLUMN * ROW];
+
+
+    public static Arena load(InputStream inputStream) throws IOException {
+
+        Arena arena = new Arena();
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, Charset.forName("UTF-8")));
+
+        for (int line = 0; line < ROW; line++) {
+
+            String text = reader.readLine();
+
+            if (text == null || text.length() < COLUMN)
+                throw new IOException("Arena layout needs " + ROW + " lines of " + COLUMN + " cells");
+
+            int y = ROW - 1 - line;
+
+            for (int x = 0; x < COLUMN; x++) {
+
+                char c = text.charAt(x);
+
+                if (c == '.')
+                    continue;
+
+                arena.obstacles[index(x, y)] = true;
+
+                if (c != '#')
+                    arena.images[index(x, y)] = Character.digit(c, 16);
+            }
+        }
+
+        return arena;
+    }
+
+
+    public static int index(int x, int y) {
+        return y * COLUMN + x;
+    }
+
+
+    public static boolean contains(int x, int y) {
+        return x >= 0 && x < COLUMN && y >= 0 && y < ROW;
+    }
+
+
+    public boolean isObstacle(int x, int y) {
+        return !contains(x, y) || obstacles[index(x, y)];
+    }
+
+
+    public int getImage(int x, int y) {
+        return contains(x, y) ? images[index(x, y)] : 0;
+    }
+
+
+    public boolean canStand(int x, int y) {
+
+        for (int dx = -1; dx <= 1; dx++)
+            for (int dy = -1; dy <= 1; dy++)
+                if (this.isObstacle(x + dx, y + dy))
+                    return false;
+
+        return true;
+    }
+}
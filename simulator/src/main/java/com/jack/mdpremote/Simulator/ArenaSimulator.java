@@ -0,0 +1,240 @@
+package com.jack.mdpremote.Simulator;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.Charset;
+
+
+public class ArenaSimulator {
+
+    private final Arena arena;
+
+    private final int port;
+
+    private final double rate;
+
+    private final boolean delimited;
+
+    private final int runs;
+
+
+    public ArenaSimulator(Arena arena, int port, double rate, boolean delimited, int runs) {
+
+        this.arena = arena;
+
+        this.port = port;
+
+        this.rate = rate;
+
+        this.delimited = delimited;
+
+        this.runs = runs;
+    }
+
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+
+        int port = 5000;
+
+        double rate = 5;
+
+        boolean delimited = true;
+
+        int runs = 0;
+
+        String arenaPath = null;
+
+        for (int i = 0; i < args.length; i++) {
+
+            switch (args[i]) {
+
+                case "--port":
+                    port = Integer.parseInt(args[++i]);
+                    break;
+
+                case "--rate":
+                    rate = Double.parseDouble(args[++i]);
+                    break;
+
+                case "--arena":
+                    arenaPath = args[++i];
+                    break;
+
+                case "--runs":
+                    runs = Integer.parseInt(args[++i]);
+                    break;
+
+                case "--no-delimiter":
+                    delimited = false;
+                    break;
+
+                default:
+                    System.err.println("Usage: ArenaSimulator [--port 5000] [--rate 5] [--arena layout.txt] [--runs 0] [--no-delimiter]");
+                    System.exit(2);
+            }
+        }
+
+        InputStream arenaStream = arenaPath == null ? ArenaSimulator.class.getResourceAsStream("/arena.txt") : new FileInputStream(arenaPath);
+
+        Arena arena;
+
+        try {
+
+            arena = Arena.load(arenaStream);
+
+        } finally {
+
+            arenaStream.close();
+        }
+
+        new ArenaSimulator(arena, port, rate, delimited, runs).serve();
+    }
+
+
+    public void serve() throws IOException, InterruptedException {
+
+        ServerSocket serverSocket = new ServerSocket(port);
+
+        System.out.println("Arena simulator listening on port " + port + " at " + rate + " updates/s");
+
+        try {
+
+            while (true) {
+
+                Socket socket = serverSocket.accept();
+
+                socket.setTcpNoDelay(true);
+
+                System.out.println("Connected: " + socket.getRemoteSocketAddress());
+
+                try {
+
+                    this.drain(socket.getInputStream());
+
+                    if (this.stream(socket.getOutputStream()))
+                        return;
+
+                } catch (IOException e) {
+
+                    System.out.println("Disconnected: " + e.getMessage());
+
+                } finally {
+
+                    socket.close();
+                }
+            }
+
+        } finally {
+
+            serverSocket.close();
+        }
+    }
+
+
+    private boolean stream(OutputStream outputStream) throws IOException, InterruptedException {
+
+        SimulatedRobot robot = new SimulatedRobot(arena);
+
+        long intervalNanos = (long) (1000000000L / rate);
+
+        long start = System.nanoTime();
+
+        long next = start;
+
+        long reportAt = start + 1000000000L;
+
+        long frames = 0;
+
+        long reportedFrames = 0;
+
+        int completedRuns = 0;
+
+        while (true) {
+
+            if (!robot.step()) {
+
+                System.out.println(String.format("Run %d finished, coverage %.1f%%", completedRuns + 1, robot.coverage() * 100));
+
+                if (++completedRuns == runs)
+                    return true;
+
+                robot.reset();
+            }
+
+            this.send(outputStream, robot.mapFrame());
+
+            frames++;
+
+            if (robot.takeNewImage()) {
+
+                this.send(outputStream, robot.imageFrame());
+
+                frames++;
+            }
+
+            outputStream.flush();
+
+            long now = System.nanoTime();
+
+            if (now >= reportAt) {
+
+                System.out.println(String.format("%.1f frames/s", (frames - reportedFrames) * 1e9 / (now - reportAt + 1000000000L)));
+
+                reportedFrames = frames;
+
+                reportAt = now + 1000000000L;
+            }
+
+            next += intervalNanos;
+
+            long sleepNanos = next - System.nanoTime();
+
+            if (sleepNanos > 0)
+                Thread.sleep(sleepNanos / 1000000, (int) (sleepNanos % 1000000));
+            else if (sleepNanos < -intervalNanos * 10)
+                next = System.nanoTime();
+        }
+    }
+
+
+    private void send(OutputStream outputStream, String frame) throws IOException {
+
+        outputStream.write(frame.getBytes(Charset.forName("US-ASCII")));
+
+        if (delimited)
+            outputStream.write('\n');
+    }
+
+
+    private void drain(final InputStream inputStream) {
+
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+
+                byte[] buffer = new byte[256];
+
+                try {
+
+                    int count;
+
+                    while ((count = inputStream.read(buffer)) >= 0)
+                        System.out.println("App sent: " + new String(buffer, 0, count, Charset.forName("US-ASCII")));
+
+                } catch (IOException e) {
+
+                    System.out.println("Input closed: " + e.getMessage());
+
+                }
+            }
+        }, "ArenaSimulator-input");
+
+        thread.setDaemon(true);
+
+        thread.start();
+    }
+}
@@ -0,0 +1,247 @@
+package com.jack.mdpremote.Simulator;
+
+
+public class SimulatedRobot {
+
+    public static final int UP = 0, RIGHT = 1, DOWN = 2, LEFT = 3;
+
+    private static final int[] X_STEP = new int[]{0, 1, 0, -1};
+
+    private static final int[] Y_STEP = new int[]{1, 0, -1, 0};
+
+    private static final char[] FACING_CODES = new char[]{'0', '2', '1', '3'};
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private static final int SENSOR_RANGE = 3;
+
+    private final Arena arena;
+
+    private final boolean[] explored = new boolean[Arena.COLUMN * Arena.ROW];
+
+    private final boolean[] sensedObstacles = new boolean[Arena.COLUMN * Arena.ROW];
+
+    private final boolean[] reportedImages = new boolean[Arena.COLUMN * Arena.ROW];
+
+    private final StringBuilder imageString = new StringBuilder();
+
+    private final char[] frame = new char[158];
+
+    private int x;
+
+    private int y;
+
+    private int facing;
+
+    private int steps;
+
+    private boolean newImage;
+
+    private boolean turnedLeft;
+
+
+    public SimulatedRobot(Arena arena) {
+
+        this.arena = arena;
+
+        this.reset();
+    }
+
+
+    public void reset() {
+
+        x = 1;
+
+        y = 1;
+
+        facing = UP;
+
+        steps = 0;
+
+        turnedLeft = false;
+
+        for (int i = 0; i < explored.length; i++) {
+
+            explored[i] = false;
+
+            sensedObstacles[i] = false;
+
+            reportedImages[i] = false;
+        }
+
+        imageString.setLength(0);
+
+        this.sense();
+    }
+
+
+    public boolean step() {
+
+        if (steps > 0 && x == 1 && y == 1)
+            return false;
+
+        int left = (facing + 3) % 4;
+
+        if (!turnedLeft && arena.canStand(x + X_STEP[left], y + Y_STEP[left])) {
+
+            facing = left;
+
+            turnedLeft = true;
+
+        } else if (arena.canStand(x + X_STEP[facing], y + Y_STEP[facing])) {
+
+            x += X_STEP[facing];
+
+            y += Y_STEP[facing];
+
+            turnedLeft = false;
+
+        } else {
+
+            facing = (facing + 1) % 4;
+
+            turnedLeft = false;
+        }
+
+        steps++;
+
+        this.sense();
+
+        return steps < 2000;
+    }
+
+
+    public boolean takeNewImage() {
+
+        boolean result = newImage;
+
+        newImage = false;
+
+        return result;
+    }
+
+
+    public String mapFrame() {
+
+        frame[0] = 'B';
+        frame[1] = '4';
+        frame[2] = ':';
+        frame[3] = (char) ('0' + x / 10);
+        frame[4] = (char) ('0' + x % 10);
+        frame[5] = (char) ('0' + y / 10);
+        frame[6] = (char) ('0' + y % 10);
+        frame[7] = FACING_CODES[facing];
+
+        for (int i = 0; i < 150; i++) {
+
+            int nibble = (this.cellBits(2 * i) << 2) | this.cellBits(2 * i + 1);
+
+            frame[8 + i] = HEX[nibble];
+        }
+
+        return new String(frame);
+    }
+
+
+    public String imageFrame() {
+
+        StringBuilder builder = new StringBuilder("B5:");
+
+        int[] bits = new int[304];
+
+        bits[0] = bits[1] = bits[302] = bits[303] = 1;
+
+        for (int i = 0; i < explored.length; i++)
+            bits[2 + i] = explored[i] ? 1 : 0;
+
+        for (int i = 0; i < bits.length; i += 4)
+            builder.append(HEX[(bits[i] << 3) | (bits[i + 1] << 2) | (bits[i + 2] << 1) | bits[i + 3]]);
+
+        return builder.append('|').append(imageString).toString();
+    }
+
+
+    public double coverage() {
+
+        int count = 0;
+
+        for (boolean cell : explored)
+            if (cell)
+                count++;
+
+        return count / (double) explored.length;
+    }
+
+
+    private int cellBits(int index) {
+
+        if (!explored[index])
+            return 0;
+
+        return sensedObstacles[index] ? 1 : 2;
+    }
+
+
+    private void sense() {
+
+        for (int dx = -1; dx <= 1; dx++)
+            for (int dy = -1; dy <= 1; dy++)
+                this.markExplored(x + dx, y + dy);
+
+        for (int direction = 0; direction < 4; direction++) {
+
+            if (direction == (facing + 2) % 4)
+                continue;
+
+            int sideX = X_STEP[(direction + 1) % 4];
+
+            int sideY = Y_STEP[(direction + 1) % 4];
+
+            for (int offset = -1; offset <= 1; offset++) {
+
+                int rayX = x + 2 * X_STEP[direction] + offset * sideX;
+
+                int rayY = y + 2 * Y_STEP[direction] + offset * sideY;
+
+                for (int range = 0; range < SENSOR_RANGE && Arena.contains(rayX, rayY); range++) {
+
+                    this.markExplored(rayX, rayY);
+
+                    if (arena.isObstacle(rayX, rayY))
+                        break;
+
+                    rayX += X_STEP[direction];
+
+                    rayY += Y_STEP[direction];
+                }
+            }
+        }
+    }
+
+
+    private void markExplored(int cellX, int cellY) {
+
+        if (!Arena.contains(cellX, cellY))
+            return;
+
+        int index = Arena.index(cellX, cellY);
+
+        explored[index] = true;
+
+        if (!arena.isObstacle(cellX, cellY))
+            return;
+
+        sensedObstacles[index] = true;
+
+        int image = arena.getImage(cellX, cellY);
+
+        if (image > 0 && !reportedImages[index]) {
+
+            reportedImages[index] = true;
+
+            imageString.append((char) ('0' + cellX / 10)).append((char) ('0' + cellX % 10)).append((char) ('0' + cellY / 10)).append((char) ('0' + cellY % 10)).append(HEX[image]);
+
+            newImage = true;
+        }
+    }
+}